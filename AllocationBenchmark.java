@@ -0,0 +1,133 @@
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many bytes one solve of a problem file allocates, with the lazy successors Trunk makes now and with
+ * every successor made up front the way getSuccessors() used to. The default problem is 11-14-full.txt.
+ *
+ * Run with: java AllocationBenchmark [fileName [iterations]]
+ *
+ * @author Kevin Becker
+ */
+public class AllocationBenchmark
+{
+    /**
+     * How many solves are done before measuring, so the JIT has settled.
+     */
+    private static final int WARMUP = 200;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The problem file (default 11-14-full.txt) and how many solves to average over (default 1000).
+     *
+     * @throws FileNotFoundException if the problem file cannot be opened for reading
+     */
+    public static void main(String[] args) throws FileNotFoundException
+    {
+        TrunkProblem problem = TrunkProblem.read((args.length > 0) ? args[0] : "11-14-full.txt");
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Backtracker solver = new Backtracker(false);
+
+        for(int eager = 0; eager < 2; ++eager)
+        {
+            // warms up, then measures the same number of solves
+            for(int i = 0; i < WARMUP; ++i)
+                solve(solver, problem, eager == 1);
+
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for(int i = 0; i < iterations; ++i)
+                solve(solver, problem, eager == 1);
+            long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+            System.out.println(((eager == 1) ? "eager" : "lazy ") + " successors: " +
+                    ((after - before) / iterations) + " bytes allocated per solve");
+        }
+    }
+
+    /**
+     * Solves the problem once.
+     *
+     * @param solver The Backtracker to solve with.
+     * @param problem The problem to solve.
+     * @param eager True to make every successor up front; false to use the lazy successors.
+     *
+     * @return True if a solution was found.
+     */
+    private static boolean solve(Backtracker solver, TrunkProblem problem, boolean eager)
+    {
+        Configuration start = problem.toTrunk(Trunk.GridType.CHARS);
+        return solver.solve(eager ? new Eager(start) : start).isPresent();
+    }
+
+    /**
+     * Wraps a Configuration so that getSuccessors() makes every successor into a List before returning any of them.
+     */
+    private static class Eager implements Configuration
+    {
+        /**
+         * The wrapped Configuration.
+         */
+        private final Configuration config;
+
+        /**
+         * Wraps a Configuration.
+         *
+         * @param config The Configuration to wrap.
+         */
+        private Eager(Configuration config)
+        {
+            this.config = config;
+        }
+
+        /**
+         * Makes all of the wrapped Configuration's successors at once.
+         *
+         * @return A List of every successor, each one wrapped.
+         */
+        @Override
+        public Iterable<Configuration> getSuccessors()
+        {
+            List<Configuration> successors = new ArrayList<>();
+            for(Configuration successor : config.getSuccessors())
+                successors.add(new Eager(successor));
+            return successors;
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         *
+         * @return What the wrapped Configuration returns.
+         */
+        @Override
+        public boolean isValid()
+        {
+            return config.isValid();
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         *
+         * @return What the wrapped Configuration returns.
+         */
+        @Override
+        public boolean isGoal()
+        {
+            return config.isGoal();
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         */
+        @Override
+        public void display()
+        {
+            config.display();
+        }
+    }
+}
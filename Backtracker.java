@@ -1,10 +1,21 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 /**
  * This class represents the classic recursive backtracking algorithm.
  * It has a solver that can take a valid configuration and return a
  * solution, if one exists.
  *
+ * It looks at what each configuration supports and uses it: failures
+ * of configurations with keys are remembered (when there is a
+ * transposition table), successors which can estimate their branching
+ * are searched fewest first, and solveBest cuts off searches with
+ * bounds. Mutable configurations can also be searched in place, by
+ * asking for it with solveInPlace.
+ *
  * @author sps (Sean Strout @ RIT CS)
  * @author jeh (James Heliotis @ RIT CS)
  */
@@ -14,6 +25,28 @@ public class Backtracker {
      */
     private boolean debug;
 
+    /*
+     * Where configurations known to fail are remembered (null if none)
+     */
+    private TranspositionTable table;
+
+    /*
+     * Who is told about each step of the search (null if no one)
+     */
+    private SearchListener listener;
+
+    /*
+     * Where debugging output goes instead of standard output (null if
+     * it goes to standard output)
+     */
+    private TraceWriter trace;
+
+    /*
+     * Says whether to give up the search (null if it always runs to the
+     * end)
+     */
+    private BooleanSupplier cancellation;
+
     /**
      * Initialize a new backtracker
      *
@@ -26,15 +59,112 @@ public class Backtracker {
         }
     }
 
+    /**
+     * Initialize a backtracker which shares everything but its
+     * cancellation with another
+     *
+     * @param original The backtracker to share with
+     */
+    private Backtracker( Backtracker original ) {
+        this.debug = original.debug;
+        this.table = original.table;
+        this.listener = original.listener;
+        this.trace = original.trace;
+    }
+
+    /**
+     * Make a backtracker which searches the same way as this one: the
+     * same debugging, and the same transposition table, listener and
+     * trace (shared, not copied), but no cancellation. It is for running
+     * another search alongside this one's, e.g. on another thread, and
+     * having it counted and traced together with this one's.
+     *
+     * @return The new backtracker
+     */
+    public Backtracker share() {
+        return new Backtracker( this );
+    }
+
+    /**
+     * Remember configurations which fail in a transposition table, and
+     * skip them when they are reached again. This only has an effect on
+     * configurations which have keys.
+     *
+     * @param table The table to use, or null to stop remembering
+     */
+    public void setTranspositionTable( TranspositionTable table ) {
+        this.table = table;
+    }
+
+    /**
+     * Tell a listener about each step of every search, e.g. a
+     * SearchMetrics to count them. With no listener the search only
+     * pays for a null check at each step.
+     *
+     * @param listener The listener to tell, or null to stop telling one
+     */
+    public void setSearchListener( SearchListener listener ) {
+        this.listener = listener;
+    }
+
+    /**
+     * Who is told about each step of every search?
+     *
+     * @return The listener, or null if there is none
+     */
+    public SearchListener getSearchListener() {
+        return this.listener;
+    }
+
+    /**
+     * Send the debugging output to a trace, which renders each config
+     * into a buffer and writes it out on another thread, instead of
+     * displaying it on standard output. This turns debugging on.
+     *
+     * @param trace The trace to send it to, or null to go back to
+     *              standard output (with debugging as it was made)
+     */
+    public void setTrace( TraceWriter trace ) {
+        this.trace = trace;
+    }
+
+    /**
+     * Give up searching as soon as something says to, e.g. because
+     * another search has already found the answer. It is asked at every
+     * configuration the search reaches, and once it says to give up it
+     * has to keep saying so. A search which gives up returns empty, the
+     * same as one which found no solution, and doesn't record what it
+     * gave up on in the transposition table, since that hasn't failed.
+     *
+     * @param cancellation Says whether to give up, or null to always
+     *                     search to the end
+     */
+    public void setCancellation( BooleanSupplier cancellation ) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Has the search been told to give up?
+     *
+     * @return true if there is a cancellation and it says to give up
+     */
+    private boolean cancelled() {
+        return this.cancellation != null && this.cancellation.getAsBoolean();
+    }
+
     /**
      * A utility routine for printing out various debug messages.
      *
      * @param msg    The type of config being looked at (current, goal,
      *               successor, e.g.)
      * @param config The config to display
+     * @param depth  How many moves config is from the start
      */
-    private void debugPrint( String msg, Configuration config ) {
-        if ( this.debug ) {
+    private void debugPrint( String msg, Configuration config, int depth ) {
+        if ( this.trace != null ) {
+            this.trace.trace( msg, config, depth );
+        }
+        else if ( this.debug ) {
             System.out.println( msg + ':' );
             config.display();
         }
@@ -42,30 +172,355 @@ public class Backtracker {
 
     /**
      * Try find a solution, if one exists, for a given configuration.
+     * The search makes successors, so config is never changed, even if
+     * it could be searched in place (use solveInPlace for that).
      *
      * @param config A valid configuration
-     * @return A solution config, or null if no solution
+     * @return A solution config, or empty if no solution
      */
     public Optional< Configuration > solve( Configuration config ) {
-        debugPrint( "Current config", config );
+        if ( this.listener != null ) {
+            this.listener.searchStarted( config );
+        }
+        Optional< Configuration > sol = solve( config, 0 );
+        if ( this.listener != null ) {
+            this.listener.searchFinished( sol.isPresent() );
+        }
+        return sol;
+    }
+
+    /**
+     * The recursive part of solve.
+     *
+     * @param config A valid configuration
+     * @param depth  How many moves config is from the one solve was
+     *               called with
+     * @return A solution config, or empty if no solution
+     */
+    private Optional< Configuration > solve( Configuration config,
+                                             int depth ) {
+        debugPrint( "Current config", config, depth );
         if ( config.isGoal() ) {
+            if ( this.listener != null ) {
+                this.listener.solved( config, depth );
+            }
             return Optional.of( config );
         }
         else {
-            for ( Configuration child : config.getSuccessors() ) {
-                if ( child.isValid() ) {
-                    debugPrint( "\tValid successor", child );
-                    Optional< Configuration > sol = solve( child );
+            if ( cancelled() ) {
+                return Optional.empty();
+            }
+            long key = remembers( config ) ? config.getKey() : 0;
+            if ( remembers( config ) && this.table.isKnownFailure( key ) ) {
+                debugPrint( "\tKnown failure", config, depth );
+                return Optional.empty();
+            }
+            if ( this.listener != null ) {
+                this.listener.expanded( config, depth );
+            }
+            for ( Configuration child : successors( config ) ) {
+                boolean valid = child.isValid();
+                if ( this.listener != null ) {
+                    this.listener.successor( child, depth + 1, valid );
+                }
+                if ( valid ) {
+                    debugPrint( "\tValid successor", child, depth + 1 );
+                    Optional< Configuration > sol =
+                            solve( child, depth + 1 );
                     if ( sol.isPresent() ) {
                         return sol;
                     }
                 }
                 else {
-                    debugPrint( "\tInvalid successor", child );
+                    debugPrint( "\tInvalid successor", child, depth + 1 );
                 }
             }
             // implicit backtracking happens here
+            if ( this.listener != null ) {
+                this.listener.backtracked( config, depth );
+            }
+            if ( remembers( config ) && !cancelled() ) {
+                this.table.recordFailure( key, depth );
+            }
         }
         return Optional.empty();
     }
+
+    /**
+     * Should a configuration be looked up in and recorded in the
+     * transposition table?
+     *
+     * @param config The configuration
+     * @return true if there is a table and config has a key
+     */
+    private boolean remembers( Configuration config ) {
+        return this.table != null && config.hasKey();
+    }
+
+    /**
+     * The successors of a configuration in the order to search them.
+     * When the configuration can estimate its branching (so its
+     * successors can too), the successors with the fewest successors
+     * of their own go first; otherwise they are left as they come.
+     *
+     * @param config The configuration
+     * @return Its successors
+     */
+    private static Iterable< Configuration > successors(
+            Configuration config ) {
+        if ( config.estimateBranching() < 0 ) {
+            return config.getSuccessors();
+        }
+        List< Configuration > children = new ArrayList<>();
+        for ( Configuration child : config.getSuccessors() ) {
+            children.add( child );
+        }
+        // each estimate is asked for once; ties keep their order
+        long[] order = new long[ children.size() ];
+        for ( int i = 0; i < order.length; ++i ) {
+            order[ i ] = sortKey( children.get( i ).estimateBranching(), i );
+        }
+        Arrays.sort( order );
+        List< Configuration > sorted = new ArrayList<>( order.length );
+        for ( long entry : order ) {
+            sorted.add( children.get( (int)entry ) );
+        }
+        return sorted;
+    }
+
+    /**
+     * Find the goal with the highest value (its getBound) below a
+     * configuration, if there are any goals. The search below a
+     * configuration is cut off when its bound is no better than the
+     * best goal found so far, and the whole search stops once a goal is
+     * as good as config's own bound, since nothing can beat that; so a
+     * configuration with no bound is only searched until the first
+     * goal. Goals have to be kept, so the successors are always made,
+     * and the transposition table isn't used: a configuration cut off
+     * by its bound hasn't failed.
+     *
+     * @param config A valid configuration
+     * @return The best goal, or empty if there are no goals
+     */
+    public Optional< Configuration > solveBest( Configuration config ) {
+        if ( this.listener != null ) {
+            this.listener.searchStarted( config );
+        }
+        Configuration[] best = new Configuration[ 1 ];
+        searchBest( config, 0, best, config.getBound() );
+        if ( this.listener != null ) {
+            this.listener.searchFinished( best[ 0 ] != null );
+        }
+        return Optional.ofNullable( best[ 0 ] );
+    }
+
+    /**
+     * The recursive part of solveBest.
+     *
+     * @param config A valid configuration
+     * @param depth  How many moves config is from the one solveBest was
+     *               called with
+     * @param best   The best goal found so far, in best[ 0 ] (null if
+     *               none)
+     * @param ceiling The bound of the configuration solveBest was
+     *                called with
+     * @return true if the best goal is now as good as the ceiling, so
+     *         the search can stop
+     */
+    private boolean searchBest( Configuration config, int depth,
+                                Configuration[] best, long ceiling ) {
+        debugPrint( "Current config", config, depth );
+        long bound = config.getBound();
+        if ( best[ 0 ] != null && bound <= best[ 0 ].getBound() ) {
+            debugPrint( "\tCut off by bound", config, depth );
+            return false;
+        }
+        if ( config.isGoal() ) {
+            if ( this.listener != null ) {
+                this.listener.solved( config, depth );
+            }
+            best[ 0 ] = config;
+            return bound >= ceiling;
+        }
+        if ( cancelled() ) {
+            return false;
+        }
+        if ( this.listener != null ) {
+            this.listener.expanded( config, depth );
+        }
+        for ( Configuration child : successors( config ) ) {
+            boolean valid = child.isValid();
+            if ( this.listener != null ) {
+                this.listener.successor( child, depth + 1, valid );
+            }
+            if ( valid ) {
+                debugPrint( "\tValid successor", child, depth + 1 );
+                if ( searchBest( child, depth + 1, best, ceiling ) ) {
+                    return true;
+                }
+            }
+            else {
+                debugPrint( "\tInvalid successor", child, depth + 1 );
+            }
+        }
+        if ( this.listener != null ) {
+            this.listener.backtracked( config, depth );
+        }
+        return false;
+    }
+
+    /**
+     * Try find a solution, if one exists, by searching a single
+     * configuration in place. Each move is applied, searched below and
+     * undone again, so no successor configurations are made.
+     *
+     * @param config A valid configuration which can be searched in place
+     * @return The same config, left in its solved state, or empty if
+     *         there is no solution (config is then back how it started)
+     */
+    public Optional< Configuration > solveInPlace(
+            MutableConfiguration config ) {
+        if ( this.listener != null ) {
+            this.listener.searchStarted( config );
+        }
+        boolean solved = searchInPlace( config, 0 );
+        if ( this.listener != null ) {
+            this.listener.searchFinished( solved );
+        }
+        return solved ? Optional.of( config ) : Optional.empty();
+    }
+
+    /**
+     * The recursive part of solveInPlace.
+     *
+     * @param config The configuration being searched
+     * @param depth  How many moves have been applied to config
+     * @return true if config is now a goal; false if every move failed
+     */
+    private boolean searchInPlace( Configuration config, int depth ) {
+        debugPrint( "Current config", config, depth );
+        if ( config.isGoal() ) {
+            if ( this.listener != null ) {
+                this.listener.solved( config, depth );
+            }
+            return true;
+        }
+        if ( cancelled() ) {
+            return false;
+        }
+        long key = remembers( config ) ? config.getKey() : 0;
+        if ( remembers( config ) && this.table.isKnownFailure( key ) ) {
+            debugPrint( "\tKnown failure", config, depth );
+            return false;
+        }
+        if ( this.listener != null ) {
+            this.listener.expanded( config, depth );
+        }
+        int[] ordered = movesInOrder( config );
+        if ( ordered != null ) {
+            for ( int move : ordered ) {
+                if ( tryMove( config, move, depth ) ) {
+                    return true;
+                }
+            }
+        }
+        else {
+            for ( int move = config.nextMove( MutableConfiguration.NO_MOVE );
+                  move != MutableConfiguration.NO_MOVE;
+                  move = config.nextMove( move ) ) {
+                if ( tryMove( config, move, depth ) ) {
+                    return true;
+                }
+            }
+        }
+        // backtracking happens here, through undo
+        if ( this.listener != null ) {
+            this.listener.backtracked( config, depth );
+        }
+        if ( remembers( config ) && !cancelled() ) {
+            this.table.recordFailure( key, depth );
+        }
+        return false;
+    }
+
+    /**
+     * Apply a move, search below it, and undo it again unless that
+     * found a goal.
+     *
+     * @param config The configuration being searched
+     * @param move   A move returned by config.nextMove
+     * @param depth  How many moves have been applied to config
+     * @return true if config is now a goal; false if the move failed
+     */
+    private boolean tryMove( Configuration config, int move, int depth ) {
+        config.apply( move );
+        boolean valid = config.isValid();
+        if ( this.listener != null ) {
+            this.listener.successor( config, depth + 1, valid );
+        }
+        if ( valid ) {
+            debugPrint( "\tValid successor", config, depth + 1 );
+            if ( searchInPlace( config, depth + 1 ) ) {
+                return true;
+            }
+        }
+        else {
+            debugPrint( "\tInvalid successor", config, depth + 1 );
+        }
+        config.undo( move );
+        return false;
+    }
+
+    /**
+     * The moves of a mutable configuration in the order to search
+     * them, when it can estimate its branching: the moves leading to
+     * the fewest successors go first. Each move is applied and undone
+     * once to ask for its estimate.
+     *
+     * @param config The configuration
+     * @return Its moves in order, or null if it can't estimate (the
+     *         moves are then searched in the order nextMove gives them)
+     */
+    private static int[] movesInOrder( Configuration config ) {
+        if ( config.estimateBranching() < 0 ) {
+            return null;
+        }
+        int[] moves = new int[ 8 ];
+        long[] order = new long[ 8 ];
+        int count = 0;
+        for ( int move = config.nextMove( MutableConfiguration.NO_MOVE );
+              move != MutableConfiguration.NO_MOVE;
+              move = config.nextMove( move ) ) {
+            if ( count == moves.length ) {
+                moves = Arrays.copyOf( moves, count * 2 );
+                order = Arrays.copyOf( order, count * 2 );
+            }
+            config.apply( move );
+            int estimate = config.estimateBranching();
+            config.undo( move );
+            moves[ count ] = move;
+            order[ count ] = sortKey( estimate, count );
+            ++count;
+        }
+        Arrays.sort( order, 0, count );
+        int[] ordered = new int[ count ];
+        for ( int i = 0; i < count; ++i ) {
+            ordered[ i ] = moves[ (int)order[ i ] ];
+        }
+        return ordered;
+    }
+
+    /**
+     * Something to sort successors by: fewest estimated successors
+     * first (no estimate counts as the most), then in the order they
+     * came.
+     *
+     * @param estimate The successor's estimateBranching
+     * @param index    Where it came in the order
+     * @return The estimate in the high 32 bits and index in the low
+     */
+    private static long sortKey( int estimate, int index ) {
+        long key = ( estimate < 0 ) ? Integer.MAX_VALUE : estimate;
+        return ( key << 32 ) | index;
+    }
 }
@@ -0,0 +1,364 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves many problem files in one run, several at a time. The files are either every regular file in a directory,
+ * or the files listed in a manifest (one path per line, relative to the manifest; blank lines and lines starting with
+ * # are skipped). Each file is in the format Tests reads.
+ *
+ * A line is printed for each file as soon as it is done, so the lines come out in the order the files finish:
+ *
+ *     fileName YES|NO time ms nodes [(reason)]
+ *
+ * or "fileName ERROR message" if the file couldn't be read or solving it failed. A summary line is printed at the
+ * end.
+ *
+ * Files are read lazily and only a few more than there are threads are queued at once, so memory use doesn't grow
+ * with the number of files.
+ *
+ * With --cache, answers are looked up in and added to a SolutionCache kept in a file, so instances seen in an
+ * earlier batch (or earlier in this one) aren't solved again.
+ *
+ * With --greedy, every file gets a quick greedy packing first, and is only searched if that doesn't pack it. Files the
+ * GreedyPacker answers show 0 nodes, and the summary says how many there were.
+ *
+ * Unless --nocheck is given, a FeasibilityCheck shared by every thread rejects the files it can show have no solution
+ * before they are searched. Their lines say why, and the summary says how many there were.
+ *
+ * With --portfolio, every file is searched by racing the SuitcaseOrders against each other (one thread each, on top of
+ * the -t threads), and the summary says how often each order won.
+ *
+ * Run with: java BatchSolver [--bitboard] [--inplace] [--anchored] [--constrained] [--prune] [--freespace]
+ *           [--nodlx] [--nocheck] [--cache file] [--greedy] [--portfolio] [-t threads] (directory | manifest)
+ *
+ * @author Kevin Becker
+ */
+public class BatchSolver
+{
+    /**
+     * How many files may be queued for each thread, beyond the ones being solved.
+     */
+    private static final int QUEUED_PER_THREAD = 2;
+
+    /**
+     * The most answers the cache keeps in memory.
+     */
+    private static final int CACHE_CAPACITY = 100_000;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * How every Trunk is stored and searched.
+     */
+    private final TrunkOptions options;
+
+    /**
+     * Should the Backtracker search one Trunk in place?
+     */
+    private final boolean inPlace;
+
+    /**
+     * Should exact cover problems go to the ExactCoverSolver?
+     */
+    private final boolean exactCover;
+
+    /**
+     * Where answers are remembered, shared by every thread (null if they aren't).
+     */
+    private SolutionCache cache = null;
+
+    /**
+     * What tries packing each file before it is searched, shared by every thread (null if nothing does).
+     */
+    private GreedyPacker greedy = null;
+
+    /**
+     * What races the orders of the suitcases for each file, shared by every thread (null if the Backtracker searches).
+     */
+    private PortfolioSolver portfolio = null;
+
+    /**
+     * What checks each file for a quick reason it has no solution, shared by every thread (null if nothing does).
+     */
+    private FeasibilityCheck feasibility = new FeasibilityCheck();
+
+    /**
+     * The counts for the summary.
+     */
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong unsolved = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Makes a new BatchSolver.
+     *
+     * @param options How every Trunk is stored and searched.
+     * @param inPlace True to search one Trunk in place; false to copy a Trunk for every successor.
+     * @param exactCover True to send exact cover problems to the ExactCoverSolver.
+     */
+    public BatchSolver(TrunkOptions options, boolean inPlace, boolean exactCover)
+    {
+        this.options = options;
+        this.inPlace = inPlace;
+        this.exactCover = exactCover;
+    }
+
+    /**
+     * Runs a batch.
+     *
+     * @param args The options described above, then the directory or manifest.
+     *
+     * @throws IOException if the directory or manifest cannot be read
+     * @throws InterruptedException if interrupted while waiting for the files to be solved
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        TrunkOptions options = new TrunkOptions();
+        boolean inPlace = false;
+        boolean exactCover = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String source = null;
+        String cacheFile = null;
+        boolean greedy = false;
+        boolean portfolio = false;
+        boolean feasibility = true;
+
+        for(int i = 0; i < args.length; ++i)
+        {
+            switch(args[i])
+            {
+                case "--bitboard" -> options.setGridType(Trunk.GridType.BITBOARD);
+                case "--inplace" -> inPlace = true;
+                case "--anchored" -> options.setBranching(Trunk.Branching.FIRST_EMPTY_CELL);
+                case "--constrained" -> options.setBranching(Trunk.Branching.MOST_CONSTRAINED);
+                case "--prune" -> options.setAreaPruning(true).setRegionPruning(true);
+                case "--freespace" -> options.setFreeSpaceIndex(true);
+                case "--nodlx" -> exactCover = false;
+                case "--nocheck" -> feasibility = false;
+                case "--cache" -> cacheFile = args[++i];
+                case "--greedy" -> greedy = true;
+                case "--portfolio" -> portfolio = true;
+                case "-t" -> threads = Integer.parseInt(args[++i]);
+                default -> source = args[i];
+            }
+        }
+        if(source == null)
+        {
+            System.err.println("Usage: java BatchSolver [--bitboard] [--inplace] [--anchored] [--constrained] [--prune] " +
+                    "[--freespace] [--nodlx] [--nocheck] [--cache file] [--greedy] [--portfolio] [-t threads] " +
+                    "(directory | manifest)");
+            System.exit(1);
+        }
+
+        BatchSolver batch = new BatchSolver(options, inPlace, exactCover);
+        if(greedy)
+            batch.setGreedy(new GreedyPacker());
+        if(!feasibility)
+            batch.setFeasibilityCheck(null);
+        if(portfolio)
+            batch.setPortfolio(new PortfolioSolver(options).addStandardStrategies());
+        if(cacheFile == null)
+        {
+            batch.run(Paths.get(source), threads);
+            return;
+        }
+        try (SolutionCache cache = new SolutionCache(CACHE_CAPACITY, Paths.get(cacheFile)))
+        {
+            batch.setCache(cache).run(Paths.get(source), threads);
+            System.out.println("cache: " + cache);
+        }
+    }
+
+    /**
+     * Sets a cache to look problems up in before solving them, and to remember the answers in.
+     *
+     * @param cache The cache to use, or null to always solve.
+     *
+     * @return This BatchSolver.
+     */
+    public BatchSolver setCache(SolutionCache cache)
+    {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets a GreedyPacker to try each file with before it is searched.
+     *
+     * @param greedy The GreedyPacker to use, or null to always search.
+     *
+     * @return This BatchSolver.
+     */
+    public BatchSolver setGreedy(GreedyPacker greedy)
+    {
+        this.greedy = greedy;
+        return this;
+    }
+
+    /**
+     * Sets the FeasibilityCheck to check each file with before it is solved.
+     *
+     * @param feasibility The FeasibilityCheck to use, or null to solve every file without checking it.
+     *
+     * @return This BatchSolver.
+     */
+    public BatchSolver setFeasibilityCheck(FeasibilityCheck feasibility)
+    {
+        this.feasibility = feasibility;
+        return this;
+    }
+
+    /**
+     * Sets a PortfolioSolver to search each file with instead of the Backtracker.
+     *
+     * @param portfolio The PortfolioSolver to use, or null to use the Backtracker.
+     *
+     * @return This BatchSolver.
+     */
+    public BatchSolver setPortfolio(PortfolioSolver portfolio)
+    {
+        this.portfolio = portfolio;
+        return this;
+    }
+
+    /**
+     * Solves every file in a directory or manifest, and prints a line for each as it finishes.
+     *
+     * @param source The directory or manifest.
+     * @param threads How many files to solve at once.
+     *
+     * @throws IOException if the directory or manifest cannot be read
+     * @throws InterruptedException if interrupted while waiting for the files to be solved
+     */
+    public void run(Path source, int threads) throws IOException, InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore queued = new Semaphore(threads * (1 + QUEUED_PER_THREAD));
+        long begin = System.nanoTime();
+        try
+        {
+            if(Files.isDirectory(source))
+            {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(source, Files::isRegularFile))
+                {
+                    submitAll(files.iterator(), pool, queued);
+                }
+            }
+            else
+            {
+                try (BufferedReader manifest = Files.newBufferedReader(source))
+                {
+                    Path directory = source.toAbsolutePath().getParent();
+                    Iterator<Path> files = manifest.lines()
+                            .map(String::trim)
+                            .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                            .map(directory::resolve)
+                            .iterator();
+                    submitAll(files, pool, queued);
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        System.out.printf("%d solved, %d unsolved, %d errors in %.3f ms%n", solved.get(), unsolved.get(),
+                errors.get(), (System.nanoTime() - begin) / NANOS_PER_MILLI);
+        if(feasibility != null)
+            System.out.println("feasibility: " + feasibility);
+        if(greedy != null)
+            System.out.println("greedy: " + greedy);
+        if(portfolio != null)
+            System.out.println("portfolio: " + portfolio);
+    }
+
+    /**
+     * Hands every file to the pool, waiting whenever too many are queued.
+     *
+     * @param files The files, read as they are needed.
+     * @param pool The threads to solve on.
+     * @param queued A permit for every file which may be queued or solving at once.
+     *
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     */
+    private void submitAll(Iterator<Path> files, ExecutorService pool, Semaphore queued) throws InterruptedException
+    {
+        while(files.hasNext())
+        {
+            Path file = files.next();
+            queued.acquire();
+            pool.execute(() ->
+            {
+                try
+                {
+                    System.out.println(solve(file));
+                }
+                catch(Throwable e)
+                {
+                    // a solver that fails only costs its own file, which still gets its line, even when the failure
+                    // is an Error like a search recursing too deep or running out of memory
+                    errors.incrementAndGet();
+                    System.out.println(file + " ERROR " + e);
+                }
+                finally
+                {
+                    queued.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads and solves one file. Every call makes its own solver, so calls on different threads share nothing but
+     * the options.
+     *
+     * @param file The problem file.
+     *
+     * @return The line to print for the file.
+     */
+    private String solve(Path file)
+    {
+        TrunkProblem problem;
+        try
+        {
+            problem = TrunkProblem.read(file.toString());
+        }
+        catch(IOException | RuntimeException e)
+        {
+            errors.incrementAndGet();
+            return file + " ERROR " + e;
+        }
+
+        SearchMetrics metrics = new SearchMetrics();
+        Backtracker backtracker = new Backtracker(false);
+        backtracker.setSearchListener(metrics);
+        TrunkSolver solver = new TrunkSolver(backtracker, options).setInPlace(inPlace).setExactCover(exactCover)
+                .setCache(cache).setGreedy(greedy)
+                .setPortfolio(portfolio).setFeasibilityCheck(feasibility);
+
+        long begin = System.nanoTime();
+        Optional<Configuration> solution = solver.solve(problem);
+        double time = (System.nanoTime() - begin) / NANOS_PER_MILLI;
+
+        (solution.isPresent() ? solved : unsolved).incrementAndGet();
+        String line = String.format("%s %s %.3f ms %d nodes", file, solution.isPresent() ? "YES" : "NO", time,
+                metrics.getExpanded());
+        return (solver.getRejection() == null) ? line : line + " (" + solver.getRejection() + ")";
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds the best packing of a Trunk when not every suitcase has to go in: the one with the most area taken up, or the
+ * most suitcases in it. It is for problems with no full solution, where the Backtracker only says no.
+ *
+ * It is a branch and bound search: a Trunk with the objective in its options, searched by Backtracker.solveBest. Each
+ * suitcase in turn is either put somewhere it fits or left out, and a branch is cut off as soon as the Trunk's bound
+ * (what is in it plus the most the suitcases left could still add) can't beat the best packing found so far. The
+ * suitcases left only count if they still fit somewhere, and never for more than the free area.
+ *
+ * The search is anytime: given a node or time budget it stops when the budget runs out and returns the best packing
+ * it has found, and isOptimal() says whether that packing is known to be the best.
+ *
+ * @author Kevin Becker
+ */
+public class BestPackingSolver
+{
+    /**
+     * How many nodes are searched between looks at the clock.
+     */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /**
+     * What makes one packing better than another.
+     */
+    public enum Objective
+    {
+        /** The most area taken up by suitcases. */
+        AREA,
+        /** The most suitcases in the Trunk. */
+        COUNT;
+
+        /**
+         * Gets the score a suitcase adds to a packing.
+         *
+         * @param suitcase The suitcase.
+         *
+         * @return Its area, or 1 when counting suitcases.
+         */
+        public long value(Suitcase suitcase)
+        {
+            return switch(this)
+            {
+                case AREA -> (long) suitcase.getLength() * suitcase.getWidth();
+                case COUNT -> 1;
+            };
+        }
+
+        /**
+         * Works out the most that suitcases could add in some free cells.
+         *
+         * @param free How many cells are empty.
+         * @param smallest The area of the smallest suitcase that could go in them.
+         *
+         * @return The free cells by area; by count, how many of the smallest suitcase there is room for.
+         */
+        public long most(int free, int smallest)
+        {
+            return switch(this)
+            {
+                case AREA -> free;
+                case COUNT -> free / smallest;
+            };
+        }
+    }
+
+    /**
+     * The length of the Trunk.
+     */
+    private final int length;
+
+    /**
+     * The width of the Trunk.
+     */
+    private final int width;
+
+    /**
+     * The suitcases that could go in.
+     */
+    private final List<Suitcase> cases;
+
+    /**
+     * What a packing is scored on.
+     */
+    private final Objective objective;
+
+    /**
+     * The most nodes to search, and the most time to search for, in nanoseconds.
+     */
+    private long nodeBudget = Long.MAX_VALUE;
+    private long timeBudget = Long.MAX_VALUE;
+
+    /**
+     * The score of the best packing found by the last solve, and the most any packing could score.
+     */
+    private long bestValue;
+    private long ceiling;
+
+    /**
+     * How many nodes have been searched, and when the search has to stop by (from System.nanoTime()).
+     */
+    private long nodes;
+    private long deadline;
+
+    /**
+     * Did the search run out of budget before it finished?
+     */
+    private boolean stopped;
+
+    /**
+     * Makes a solver for a problem.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param cases The Suitcases that could go into the Trunk.
+     * @param objective What a packing is scored on.
+     */
+    public BestPackingSolver(int length, int width, List<Suitcase> cases, Objective objective)
+    {
+        this.length = length;
+        this.width = width;
+        this.cases = new ArrayList<>(cases);
+        this.objective = objective;
+    }
+
+    /**
+     * Sets the most nodes the search may look at before returning the best packing so far.
+     *
+     * @param nodeBudget The number of nodes.
+     *
+     * @return This solver.
+     */
+    public BestPackingSolver setNodeBudget(long nodeBudget)
+    {
+        this.nodeBudget = nodeBudget;
+        return this;
+    }
+
+    /**
+     * Sets the most time the search may take before returning the best packing so far.
+     *
+     * @param millis The time, in milliseconds.
+     *
+     * @return This solver.
+     */
+    public BestPackingSolver setTimeBudget(long millis)
+    {
+        this.timeBudget = millis * 1_000_000;
+        return this;
+    }
+
+    /**
+     * Searches for the best packing.
+     *
+     * @param options How the returned Trunk should be stored.
+     *
+     * @return A Trunk with the best packing found in it; the suitcases left out are still to be added.
+     */
+    public Trunk solve(TrunkOptions options)
+    {
+        nodes = 0;
+        stopped = false;
+        long start = System.nanoTime();
+        deadline = (timeBudget == Long.MAX_VALUE) ? Long.MAX_VALUE : start + timeBudget;
+
+        // big suitcases first, so the good packings come early; the pruning rules are for when everything goes in
+        TrunkOptions searchOptions = options.copy().setOrder(SuitcaseOrder.AREA)
+                .setBranching(Trunk.Branching.NEXT_SUITCASE).setAreaPruning(false).setRegionPruning(false)
+                .setObjective(objective);
+        Trunk empty = new Trunk(length, width, new ArrayList<>(cases), searchOptions);
+        ceiling = empty.getBound();
+
+        Backtracker backtracker = new Backtracker(false);
+        backtracker.setCancellation(this::outOfBudget);
+        Optional<Configuration> found = backtracker.solveBest(empty);
+
+        // running out of budget before the first packing leaves the Trunk empty
+        bestValue = found.map(Configuration::getBound).orElse(0L);
+        Trunk best = new Trunk(length, width, new ArrayList<>(cases), options);
+        if(found.isPresent())
+        {
+            for(Placement placement : ((Trunk) found.get()).placements())
+                best.putSuitcase(placement.getRow(), placement.getCol(), placement.getSuitcase());
+        }
+        return best;
+    }
+
+    /**
+     * Getter for the score of the best packing.
+     *
+     * @return The area or number of suitcases in the best packing the last solve found.
+     */
+    public long getBestValue()
+    {
+        return bestValue;
+    }
+
+    /**
+     * Is the best packing known to be the best there is?
+     *
+     * @return True if the last solve searched everything it had to (or found a packing nothing could beat); false if
+     *         it ran out of budget first.
+     */
+    public boolean isOptimal()
+    {
+        return !stopped || bestValue == ceiling;
+    }
+
+    /**
+     * Getter for the number of nodes searched.
+     *
+     * @return How many nodes the last solve looked at.
+     */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Checks the budget, counting one more node. The Backtracker asks at every node it expands.
+     *
+     * @return True if the node or time budget has run out.
+     */
+    private boolean outOfBudget()
+    {
+        if(stopped)
+            return true;
+        ++nodes;
+        if(nodes > nodeBudget || nodes % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline)
+            stopped = true;
+        return stopped;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * An Occupancy which stores each row of the Trunk as bits in longs (more than one long per row when a row is longer
+ * than 64 cells). Testing whether a suitcase fits is one AND per row it covers, and placing it is one OR per row,
+ * instead of looking at every single cell.
+ *
+ * The bits don't know which suitcase is where, so the names are kept in a separate chain of Placements which is only
+ * looked at when rendering.
+ *
+ * @author Kevin Becker
+ */
+public class BitboardOccupancy implements Occupancy
+{
+    /**
+     * The number of cells held by one long.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * The length (number of columns) of the Trunk.
+     */
+    private int length;
+
+    /**
+     * The width (number of rows) of the Trunk.
+     */
+    private int width;
+
+    /**
+     * The number of longs it takes to hold one row.
+     */
+    private int wordsPerRow;
+
+    /**
+     * The rows, one after another, wordsPerRow longs each. Bit c of word w of a row is column (w * 64 + c).
+     */
+    private long[] bits;
+
+    /**
+     * The most recent Placement, which is where the names of the suitcases are kept.
+     */
+    private Placement placements;
+
+    /**
+     * Constructs a new empty BitboardOccupancy.
+     *
+     * @param length The length (columns) of the Trunk.
+     * @param width The width (rows) of the Trunk.
+     */
+    BitboardOccupancy(int length, int width)
+    {
+        this.length = length;
+        this.width = width;
+        this.wordsPerRow = (length + WORD_SIZE - 1) / WORD_SIZE;
+        this.bits = new long[width * wordsPerRow];
+        this.placements = null;
+    }
+
+    /**
+     * Copy constructor. The Placements are shared since they never change.
+     *
+     * @param toCopy The BitboardOccupancy to copy.
+     */
+    private BitboardOccupancy(BitboardOccupancy toCopy)
+    {
+        this.length = toCopy.length;
+        this.width = toCopy.width;
+        this.wordsPerRow = toCopy.wordsPerRow;
+        this.bits = toCopy.bits.clone();
+        this.placements = toCopy.placements;
+    }
+
+    /**
+     * Builds the bits of columns [fromCol, toCol) which land in word number word of a row.
+     *
+     * @param word Which word of the row.
+     * @param fromCol The first column (inclusive).
+     * @param toCol The last column (exclusive).
+     *
+     * @return The mask of those columns inside of the word (0 if none of them are in it).
+     */
+    private static long mask(int word, int fromCol, int toCol)
+    {
+        // clamps the columns to the ones this word holds
+        int lo = Math.max(fromCol, word * WORD_SIZE) - word * WORD_SIZE;
+        int hi = Math.min(toCol, (word + 1) * WORD_SIZE) - word * WORD_SIZE;
+
+        if(hi <= lo)
+            return 0L;
+
+        // a full word can't be made by shifting, so it is special cased
+        return ((hi - lo == WORD_SIZE) ? -1L : ((1L << (hi - lo)) - 1)) << lo;
+    }
+
+    /**
+     * Determines if a case can be fit in starting at startRow and startCol.
+     *
+     * @param startRow The starting row to check for fit.
+     * @param startCol The starting col to check for fit.
+     * @param suitcase The suitcase we are checking for fit.
+     *
+     * @return True if the case can fit; false otherwise.
+     */
+    @Override
+    public boolean open(int startRow, int startCol, Suitcase suitcase)
+    {
+        int endRow = startRow + suitcase.getWidth();
+        int endCol = startCol + suitcase.getLength();
+
+        // if it hangs off of the bottom or the right it can't fit
+        if(endRow > width || endCol > length)
+            return false;
+
+        int firstWord = startCol / WORD_SIZE;
+        int lastWord = (endCol - 1) / WORD_SIZE;
+
+        // the common case: the suitcase is in a single word of each row
+        if(firstWord == lastWord)
+        {
+            long rowMask = mask(firstWord, startCol, endCol);
+            for(int index = startRow * wordsPerRow + firstWord; index < endRow * wordsPerRow; index += wordsPerRow)
+            {
+                if((bits[index] & rowMask) != 0)
+                    return false;
+            }
+            return true;
+        }
+
+        // otherwise check every word the suitcase touches
+        for(int row = startRow; row < endRow; ++row)
+        {
+            for(int word = firstWord; word <= lastWord; ++word)
+            {
+                if((bits[row * wordsPerRow + word] & mask(word, startCol, endCol)) != 0)
+                    return false;
+            }
+        }
+        // if we get here the space is open
+        return true;
+    }
+
+    /**
+     * Finds the first position at or after a cell where a suitcase can be fit in. When a row fits in one long, the
+     * columns a suitcase fits at in a whole row are found at once: each row it would cover is turned into the mask of
+     * columns which start a long enough run of empty cells, and those masks are ANDed with the columns where it
+     * doesn't hang off of the right.
+     *
+     * @param fromCell The index (row * length + col) of the first position to look at.
+     * @param suitcase The suitcase we are looking to fit.
+     *
+     * @return The index of the first position where the case fits, or -1 if there isn't one.
+     */
+    @Override
+    public int nextOpen(int fromCell, Suitcase suitcase)
+    {
+        int caseLength = suitcase.getLength();
+        int caseWidth = suitcase.getWidth();
+        if(caseLength > length || caseWidth > width)
+            return -1;
+
+        int fromRow = fromCell / length;
+        int fromCol = fromCell % length;
+
+        // rows longer than a word are checked one position at a time
+        if(wordsPerRow > 1)
+        {
+            for(int row = fromRow; row <= width - caseWidth; ++row)
+            {
+                for(int col = (row == fromRow) ? fromCol : 0; col <= length - caseLength; ++col)
+                {
+                    if(open(row, col, suitcase))
+                        return row * length + col;
+                }
+            }
+            return -1;
+        }
+
+        long starts = mask(0, 0, length - caseLength + 1);
+        for(int row = fromRow; row <= width - caseWidth; ++row)
+        {
+            long fits = (row == fromRow) ? starts & (-1L << fromCol) : starts;
+            for(int covered = row; covered < row + caseWidth && fits != 0; ++covered)
+                fits &= runStarts(~bits[covered], caseLength);
+
+            if(fits != 0)
+                return row * length + Long.numberOfTrailingZeros(fits);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the columns which start a run of empty cells at least some number long.
+     *
+     * @param empty The empty cells of a row, as bits.
+     * @param run How long the run has to be.
+     *
+     * @return The bits of the columns which have that many empty cells from them on.
+     */
+    private static long runStarts(long empty, int run)
+    {
+        // doubles how far each bit has been checked until it covers the run
+        long starts = empty;
+        for(int checked = 1; checked < run; )
+        {
+            int step = Math.min(checked, run - checked);
+            starts &= starts >>> step;
+            checked += step;
+        }
+        return starts;
+    }
+
+    /**
+     * Is a single cell empty?
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return True if the cell's bit is not set; false otherwise.
+     */
+    @Override
+    public boolean isEmpty(int row, int col)
+    {
+        return (bits[row * wordsPerRow + col / WORD_SIZE] & (1L << (col % WORD_SIZE))) == 0;
+    }
+
+    /**
+     * Sets the bits that a suitcase (which) takes up starting at a certain row and column, and remembers its name.
+     *
+     * @param startRow The row to begin filling at.
+     * @param startCol The column to begin filling at.
+     * @param which The suitcase we are attempting to "place".
+     */
+    @Override
+    public void fill(int startRow, int startCol, Suitcase which)
+    {
+        int endRow = startRow + which.getWidth();
+        int endCol = startCol + which.getLength();
+
+        for(int word = startCol / WORD_SIZE; word <= (endCol - 1) / WORD_SIZE; ++word)
+        {
+            long rowMask = mask(word, startCol, endCol);
+            for(int row = startRow; row < endRow; ++row)
+            {
+                bits[row * wordsPerRow + word] |= rowMask;
+            }
+        }
+
+        // the name only goes in the lookup
+        placements = new Placement(startRow, startCol, which, placements);
+    }
+
+    /**
+     * Unsets the bits that a suitcase (which) took up, and forgets its name.
+     *
+     * @param startRow The row the suitcase was filled at.
+     * @param startCol The column the suitcase was filled at.
+     * @param which The suitcase we are taking back out.
+     */
+    @Override
+    public void clear(int startRow, int startCol, Suitcase which)
+    {
+        int endRow = startRow + which.getWidth();
+        int endCol = startCol + which.getLength();
+
+        for(int word = startCol / WORD_SIZE; word <= (endCol - 1) / WORD_SIZE; ++word)
+        {
+            long rowMask = mask(word, startCol, endCol);
+            for(int row = startRow; row < endRow; ++row)
+            {
+                bits[row * wordsPerRow + word] &= ~rowMask;
+            }
+        }
+
+        // fills are undone last in first out, so the name is always the most recent placement
+        placements = placements.getPrevious();
+    }
+
+    /**
+     * Makes an independent copy of this BitboardOccupancy.
+     *
+     * @return A new BitboardOccupancy with the same bits set.
+     */
+    @Override
+    public Occupancy copy()
+    {
+        return new BitboardOccupancy(this);
+    }
+
+    /**
+     * The Placements are already kept, so the most recent one is handed out as it is.
+     *
+     * @return The most recent Placement, or null if nothing is filled.
+     */
+    @Override
+    public Placement placements()
+    {
+        return placements;
+    }
+
+    /**
+     * Adds each row to a buffer by going along it from one Placement in it to the next, without painting a grid.
+     *
+     * @param out The buffer to add to.
+     * @param empty What to show for an empty cell.
+     */
+    @Override
+    public void appendGrid(StringBuilder out, char empty)
+    {
+        for(int row = 0; row < width; ++row)
+        {
+            int col = 0;
+            while(col < length)
+            {
+                // the Placement in this row which starts first at or after col (none means the rest are empty)
+                Placement next = null;
+                for(Placement p = placements; p != null; p = p.getPrevious())
+                {
+                    if(p.getRow() <= row && row < p.getRow() + p.getSuitcase().getWidth() && p.getCol() >= col &&
+                            (next == null || p.getCol() < next.getCol()))
+                        next = p;
+                }
+
+                int start = (next == null) ? length : next.getCol();
+                for(; col < start; ++col)
+                    out.append(empty).append(' ');
+                if(next != null)
+                {
+                    for(int end = start + next.getSuitcase().getLength(); col < end; ++col)
+                        out.append(next.getSuitcase().getName()).append(' ');
+                }
+            }
+            out.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Adds each Placement to a buffer, picking the one with the next corner each time since the Placements are kept
+     * in the order they were made.
+     *
+     * @param out The buffer to add to.
+     */
+    @Override
+    public void appendPlacements(StringBuilder out)
+    {
+        int after = -1;
+        while(true)
+        {
+            Placement next = null;
+            int nextCorner = Integer.MAX_VALUE;
+            for(Placement p = placements; p != null; p = p.getPrevious())
+            {
+                int corner = p.getRow() * length + p.getCol();
+                if(corner > after && corner < nextCorner)
+                {
+                    next = p;
+                    nextCorner = corner;
+                }
+            }
+            if(next == null)
+                return;
+
+            Suitcase suitcase = next.getSuitcase();
+            out.append(suitcase.getName()).append('@').append(next.getRow()).append(',').append(next.getCol())
+                    .append(':').append(suitcase.getLength()).append('x').append(suitcase.getWidth()).append(' ');
+            after = nextCorner;
+        }
+    }
+}
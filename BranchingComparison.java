@@ -0,0 +1,147 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Counts how many Trunks each kind of branching expands to solve the same problems: the three fixed tests from Tests,
+ * plus any problem files given (11-14-full.txt if none are given).
+ *
+ * Run with: java BranchingComparison [fileName ...]
+ *
+ * @author Kevin Becker
+ */
+public class BranchingComparison
+{
+    /**
+     * Runs the comparison.
+     *
+     * @param args The problem files to compare on, as well as the fixed tests.
+     *
+     * @throws FileNotFoundException if a problem file cannot be opened for reading
+     */
+    public static void main(String[] args) throws FileNotFoundException
+    {
+        List<TrunkProblem> problems = new ArrayList<>(Tests.fixedProblems());
+        List<String> names = new ArrayList<>(List.of("test1", "test2", "test3"));
+        for(String fileName : (args.length > 0) ? args : new String[]{ "11-14-full.txt" })
+        {
+            problems.add(TrunkProblem.read(fileName));
+            names.add(fileName);
+        }
+
+        System.out.printf("%-20s", "problem");
+        for(Trunk.Branching branching : Trunk.Branching.values())
+            System.out.printf("%22s", branching);
+        System.out.println();
+
+        for(int i = 0; i < problems.size(); ++i)
+        {
+            System.out.printf("%-20s", names.get(i));
+            for(Trunk.Branching branching : Trunk.Branching.values())
+            {
+                Counter counter = new Counter(problems.get(i).toTrunk(new TrunkOptions().setBranching(branching)));
+                boolean solved = new Backtracker(false).solve(counter).isPresent();
+                System.out.printf("%16d nodes %s", counter.count[0], solved ? "Y" : "N");
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Wraps a Configuration and counts every Configuration under it which has its successors asked for.
+     */
+    private static class Counter implements Configuration
+    {
+        /**
+         * The wrapped Configuration.
+         */
+        private final Configuration config;
+
+        /**
+         * The count, shared by every Counter in the same search.
+         */
+        private final long[] count;
+
+        /**
+         * Wraps the starting Configuration of a search.
+         *
+         * @param config The Configuration to wrap.
+         */
+        private Counter(Configuration config)
+        {
+            this(config, new long[1]);
+        }
+
+        /**
+         * Wraps a Configuration in a search.
+         *
+         * @param config The Configuration to wrap.
+         * @param count The count of the search.
+         */
+        private Counter(Configuration config, long[] count)
+        {
+            this.config = config;
+            this.count = count;
+        }
+
+        /**
+         * Counts this Configuration, and wraps its successors as they are made.
+         *
+         * @return The wrapped Configuration's successors, each one wrapped.
+         */
+        @Override
+        public Iterable<Configuration> getSuccessors()
+        {
+            ++count[0];
+            Iterable<Configuration> successors = config.getSuccessors();
+            return () -> new Iterator<Configuration>()
+            {
+                private final Iterator<Configuration> iterator = successors.iterator();
+
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Configuration next()
+                {
+                    return new Counter(iterator.next(), count);
+                }
+            };
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         *
+         * @return What the wrapped Configuration returns.
+         */
+        @Override
+        public boolean isValid()
+        {
+            return config.isValid();
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         *
+         * @return What the wrapped Configuration returns.
+         */
+        @Override
+        public boolean isGoal()
+        {
+            return config.isGoal();
+        }
+
+        /**
+         * Passes straight through to the wrapped Configuration.
+         */
+        @Override
+        public void display()
+        {
+            config.display();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * The original Occupancy of the Trunk: a 2D char array which has each suitcase's name in its position.
+ *
+ * @author Kevin Becker
+ */
+public class CharOccupancy implements Occupancy
+{
+    /**
+     * The length (number of columns) of the Trunk.
+     */
+    private int length;
+
+    /**
+     * The "state" of the Trunk. A.K.A. a 2D char array which has each suitcase in its position.
+     */
+    private char [][] trunkState;
+
+    /**
+     * Constructs a new empty CharOccupancy.
+     *
+     * @param length The length (columns) of the Trunk.
+     * @param width The width (rows) of the Trunk.
+     */
+    CharOccupancy(int length, int width)
+    {
+        this.length = length;
+
+        // trunkState char array of y by x
+        this.trunkState = new char[width][length];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param toCopy The CharOccupancy to copy.
+     */
+    private CharOccupancy(CharOccupancy toCopy)
+    {
+        this(toCopy.length, toCopy.trunkState.length);
+
+        // sets our new state (it will be changed later)
+        for(int i = 0; i < this.trunkState.length; i++)
+            System.arraycopy(toCopy.trunkState[i], 0, this.trunkState[i],0, this.length);
+    }
+
+    /**
+     * Determines if a case can be fit in starting at startRow and startCol.
+     *
+     * @param startRow The starting row to check for fit.
+     * @param startCol The starting col to check for fit.
+     * @param suitcase The suitcase we are checking for fit.
+     *
+     * @return True if the case can fit; false otherwise.
+     */
+    @Override
+    public boolean open(int startRow, int startCol, Suitcase suitcase)
+    {
+        // loops from startRow for width many times
+        for(int row = startRow; row < startRow + suitcase.getWidth(); ++row)
+        {
+            // loops from startCol for length many times
+            for(int col = startCol; col < startCol + suitcase.getLength(); ++col)
+            {
+                /*
+                if we aren't over the length of the rows, or the width of the rows, and it is a blank char
+                we're okay
+                however if anything isn't true, we can't consider space open
+                 */
+                if (row >= trunkState.length || col >= trunkState[row].length || trunkState[row][col] != '\u0000')
+                    return false;
+            }
+        }
+        // if we get here the space is open
+        return true;
+    }
+
+    /**
+     * Finds the first position at or after a cell where a suitcase can be fit in, only looking at the rows and
+     * columns where it doesn't hang off of the Trunk.
+     *
+     * @param fromCell The index (row * length + col) of the first position to look at.
+     * @param suitcase The suitcase we are looking to fit.
+     *
+     * @return The index of the first position where the case fits, or -1 if there isn't one.
+     */
+    @Override
+    public int nextOpen(int fromCell, Suitcase suitcase)
+    {
+        int lastRow = trunkState.length - suitcase.getWidth();
+        int lastCol = length - suitcase.getLength();
+        for(int row = fromCell / length; row <= lastRow; ++row)
+        {
+            // only the first row starts part of the way across
+            for(int col = (row == fromCell / length) ? fromCell % length : 0; col <= lastCol; ++col)
+            {
+                if(open(row, col, suitcase))
+                    return row * length + col;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Is a single cell empty?
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return True if the char there is NUL; false otherwise.
+     */
+    @Override
+    public boolean isEmpty(int row, int col)
+    {
+        return trunkState[row][col] == '\u0000';
+    }
+
+    /**
+     * Fills the spaces that a suitcase (which) takes up starting at a certain row and column.
+     *
+     * @param startRow The row in the trunkState to begin filling at.
+     * @param startCol The column in the trunkState to begin filling at.
+     * @param which The suitcase we are attempting to "place" in trunkState.
+     */
+    @Override
+    public void fill(int startRow, int startCol, Suitcase which)
+    {
+        for(int row = startRow; row < startRow + which.getWidth(); ++row)
+        {
+            for(int col = startCol; col < startCol + which.getLength(); ++col)
+            {
+                // sets the char at [row][col] to the Suitcase's name.
+                this.trunkState[row][col] = which.getName();
+            }
+        }
+    }
+
+    /**
+     * Puts NUL back in the spaces that a suitcase (which) took up.
+     *
+     * @param startRow The row in the trunkState the suitcase was filled at.
+     * @param startCol The column in the trunkState the suitcase was filled at.
+     * @param which The suitcase we are taking back out of trunkState.
+     */
+    @Override
+    public void clear(int startRow, int startCol, Suitcase which)
+    {
+        for(int row = startRow; row < startRow + which.getWidth(); ++row)
+        {
+            for(int col = startCol; col < startCol + which.getLength(); ++col)
+            {
+                this.trunkState[row][col] = '\u0000';
+            }
+        }
+    }
+
+    /**
+     * Makes an independent copy of this CharOccupancy.
+     *
+     * @return A new CharOccupancy with the same chars in it.
+     */
+    @Override
+    public Occupancy copy()
+    {
+        return new CharOccupancy(this);
+    }
+
+    /**
+     * Finds each suitcase's top left corner in the trunkState and how far its name goes from there, and chains them
+     * up as Placements.
+     *
+     * @return The Placement of the suitcase with the last corner going across the rows, or null if nothing is
+     *         filled.
+     */
+    @Override
+    public Placement placements()
+    {
+        Placement placements = null;
+        for(int row = 0; row < trunkState.length; ++row)
+        {
+            for(int col = 0; col < length; ++col)
+            {
+                if(isCorner(row, col))
+                {
+                    Suitcase suitcase = new Suitcase(trunkState[row][col], across(row, col), down(row, col));
+                    placements = new Placement(row, col, suitcase, placements);
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Adds each char of the trunkState to a buffer, a row to a line.
+     *
+     * @param out The buffer to add to.
+     * @param empty What to show for an empty cell.
+     */
+    @Override
+    public void appendGrid(StringBuilder out, char empty)
+    {
+        for(char[] row : this.trunkState)
+        {
+            for(char cell : row)
+                out.append((cell == '\u0000') ? empty : cell).append(' ');
+            out.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Finds each suitcase's top left corner in the trunkState and how far its name goes from there, and adds them to
+     * a buffer.
+     *
+     * @param out The buffer to add to.
+     */
+    @Override
+    public void appendPlacements(StringBuilder out)
+    {
+        for(int row = 0; row < trunkState.length; ++row)
+        {
+            for(int col = 0; col < length; ++col)
+            {
+                if(isCorner(row, col))
+                {
+                    out.append(trunkState[row][col]).append('@').append(row).append(',').append(col).append(':')
+                            .append(across(row, col)).append('x').append(down(row, col)).append(' ');
+                }
+            }
+        }
+    }
+
+    /**
+     * Is a cell the top left corner of a suitcase? Names are unique, so it is unless it is empty or the same name is
+     * left of it or above it.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return True if a suitcase starts there; false otherwise.
+     */
+    private boolean isCorner(int row, int col)
+    {
+        char name = trunkState[row][col];
+        return name != '\u0000' && (col == 0 || trunkState[row][col - 1] != name) &&
+                (row == 0 || trunkState[row - 1][col] != name);
+    }
+
+    /**
+     * Measures how far the name in a cell goes to the right.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return How many cells in a row, from this one on, have its name.
+     */
+    private int across(int row, int col)
+    {
+        int right = col + 1;
+        while(right < length && trunkState[row][right] == trunkState[row][col])
+            ++right;
+        return right - col;
+    }
+
+    /**
+     * Measures how far the name in a cell goes down.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return How many cells in a column, from this one on, have its name.
+     */
+    private int down(int row, int col)
+    {
+        int bottom = row + 1;
+        while(bottom < trunkState.length && trunkState[bottom][col] == trunkState[row][col])
+            ++bottom;
+        return bottom - row;
+    }
+}
@@ -4,6 +4,11 @@
  * solve a puzzle.  Therefore, all puzzles must implement this
  * interface.
  *
+ * The first four routines are all a puzzle needs. The rest have
+ * defaults which say the puzzle doesn't support them; a puzzle that
+ * overrides them gets a faster search from the Backtracker without
+ * the Backtracker knowing anything about the puzzle.
+ *
  * @author sps (Sean Strout @ RIT CS)
  */
 public interface Configuration {
@@ -32,4 +37,118 @@ public interface Configuration {
      * Print out the contents of a configuration on standard output.
      */
     public void display();
+
+    /**
+     * Write out the same contents as display, into a buffer instead of
+     * on standard output, for tracing a search (see TraceWriter).
+     *
+     * @param out the buffer to add to
+     */
+    public default void appendGrid( StringBuilder out ) {
+        out.append( this ).append( System.lineSeparator() );
+    }
+
+    /**
+     * Write out a short summary of a configuration on one line (with
+     * no line separator), for tracing a search without the cost of
+     * appendGrid.
+     *
+     * @param out the buffer to add to
+     */
+    public default void appendLine( StringBuilder out ) {
+        out.append( this );
+    }
+
+    /**
+     * Can this configuration be summed up by getKey? Configurations
+     * with keys have their failures remembered in a transposition
+     * table (see KeyedConfiguration).
+     *
+     * @return false unless getKey is overridden
+     */
+    public default boolean hasKey() {
+        return false;
+    }
+
+    /**
+     * Get a 64-bit key of this configuration. Two configurations with
+     * the same key must have the same future, and the key must not
+     * change when getSuccessors is called.
+     *
+     * @return the configuration's key
+     * @throws UnsupportedOperationException if hasKey is false
+     */
+    public default long getKey() {
+        throw new UnsupportedOperationException( "No key" );
+    }
+
+    /**
+     * Get the highest value any goal at or below this configuration
+     * can have, for Backtracker.solveBest to cut off searches that
+     * can't beat the best goal found so far. At a goal this is its
+     * value. To find the lowest cost instead, return minus the cost.
+     *
+     * @return an upper bound on the value of the goals reachable from
+     *         here; Long.MAX_VALUE if nothing is known
+     */
+    public default long getBound() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Estimate how many valid successors this configuration has. It
+     * should be much cheaper than getSuccessors; when successors can
+     * estimate, the Backtracker searches the ones with the fewest
+     * successors of their own first, so dead ends are found early.
+     *
+     * @return the estimate, or -1 if there isn't one
+     */
+    public default int estimateBranching() {
+        return -1;
+    }
+
+    /**
+     * Can this configuration be searched in place, through nextMove,
+     * apply and undo (see MutableConfiguration)?
+     *
+     * @return false unless nextMove, apply and undo are overridden
+     */
+    public default boolean isMutable() {
+        return false;
+    }
+
+    /**
+     * Get the move that comes after a given move from the current
+     * configuration.
+     *
+     * @param previous the last move looked at, or
+     *                 MutableConfiguration.NO_MOVE to get the first one
+     * @return the next move, or MutableConfiguration.NO_MOVE if there
+     *         are no more
+     * @throws UnsupportedOperationException if isMutable is false
+     */
+    public default int nextMove( int previous ) {
+        throw new UnsupportedOperationException( "Not mutable" );
+    }
+
+    /**
+     * Change this configuration into its successor for a move.
+     *
+     * @param move a move returned by nextMove
+     * @throws UnsupportedOperationException if isMutable is false
+     */
+    public default void apply( int move ) {
+        throw new UnsupportedOperationException( "Not mutable" );
+    }
+
+    /**
+     * Change this configuration back to what it was before a move was
+     * applied.
+     *
+     * @param move the move most recently applied
+     * @throws UnsupportedOperationException if isMutable is false
+     */
+    public default void undo( int move ) {
+        throw new UnsupportedOperationException( "Not mutable" );
+    }
 }
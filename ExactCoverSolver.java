@@ -0,0 +1,385 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Solves Trunk problems where the suitcases take up exactly the whole Trunk. Those are exact cover problems: every
+ * cell has to be covered by exactly one suitcase, and every suitcase has to be used exactly once. This solves them
+ * with Knuth's Algorithm X using Dancing Links, which is much faster than placing one suitcase at a time.
+ *
+ * The matrix has a column for every cell and every suitcase, and a row for every position of every suitcase (both
+ * ways around). The links are kept in int arrays instead of node objects.
+ *
+ * @author Kevin Becker
+ */
+public class ExactCoverSolver
+{
+    /**
+     * The length of the Trunk.
+     */
+    private final int length;
+
+    /**
+     * The width of the Trunk.
+     */
+    private final int width;
+
+    /**
+     * The suitcases, in the order they were given.
+     */
+    private final List<Suitcase> cases;
+
+    /**
+     * The links of every node. Node 0 is the root, nodes 1 through columns are the column headers, and the rest are
+     * the 1s of the matrix.
+     */
+    private int[] left, right, up, down;
+
+    /**
+     * The column header of every node.
+     */
+    private int[] column;
+
+    /**
+     * The matrix row of every node.
+     */
+    private int[] rowOf;
+
+    /**
+     * How many 1s are left in each column (indexed by header node).
+     */
+    private int[] size;
+
+    /**
+     * The number of nodes made so far.
+     */
+    private int nodes;
+
+    /**
+     * For every matrix row: the top left cell, and the suitcase in the orientation it is placed.
+     */
+    private final List<int[]> rowCells = new ArrayList<>();
+    private final List<Suitcase> rowCases = new ArrayList<>();
+
+    /**
+     * The matrix rows chosen so far, one per suitcase placed.
+     */
+    private int[] chosen;
+
+    /**
+     * How many rows the last search tried.
+     */
+    private long rowsTried;
+
+    /**
+     * Who is told about each step of the search (null if no one).
+     */
+    private SearchListener listener;
+
+    /**
+     * Makes a solver for a problem. The same inputs as the Trunk constructor are taken.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param cases The Suitcases to add to the Trunk.
+     */
+    public ExactCoverSolver(int length, int width, List<Suitcase> cases)
+    {
+        this.length = length;
+        this.width = width;
+        this.cases = new ArrayList<>(cases);
+    }
+
+    /**
+     * Is a problem an exact cover problem: do the areas of the suitcases add up to exactly the area of the Trunk?
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param cases The Suitcases to add to the Trunk.
+     *
+     * @return True if the suitcases would fill the Trunk exactly; false otherwise.
+     */
+    public static boolean isPerfectFit(int length, int width, List<Suitcase> cases)
+    {
+        long area = 0;
+        for(Suitcase suitcase : cases)
+            area += (long) suitcase.getLength() * suitcase.getWidth();
+        return area == (long) length * width;
+    }
+
+    /**
+     * Solves the problem.
+     *
+     * @param options How the solution Trunk should be stored.
+     *
+     * @return The solved Trunk, or empty if there is no solution.
+     */
+    public Optional<Configuration> solve(TrunkOptions options)
+    {
+        if(!isPerfectFit(length, width, cases))
+            throw new IllegalStateException("suitcases do not exactly fill the trunk");
+
+        if(listener != null)
+            listener.searchStarted(null);
+        build();
+        chosen = new int[cases.size()];
+        if(!search(0))
+        {
+            if(listener != null)
+                listener.searchFinished(false);
+            return Optional.empty();
+        }
+
+        // puts every chosen placement into a fresh Trunk
+        Trunk solution = new Trunk(length, width, new ArrayList<>(cases), options);
+        for(int row : chosen)
+            solution.putSuitcase(rowCells.get(row)[0], rowCells.get(row)[1], rowCases.get(row));
+        if(listener != null)
+        {
+            listener.solved(solution, cases.size());
+            listener.searchFinished(true);
+        }
+        return Optional.of(solution);
+    }
+
+    /**
+     * Tells a listener about each step of the search: choosing a column is an expanded node, each of its rows is a
+     * successor, and running out of rows is a backtrack. There are no Configurations to pass it until the end, so
+     * every Configuration it is given is null except the solved one.
+     *
+     * @param listener The listener to tell, or null to stop telling one.
+     *
+     * @return This solver.
+     */
+    public ExactCoverSolver setSearchListener(SearchListener listener)
+    {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * How much work did the last solve do?
+     *
+     * @return The number of rows tried.
+     */
+    public long getRowsTried()
+    {
+        return rowsTried;
+    }
+
+    /**
+     * Builds the Dancing Links matrix.
+     */
+    private void build()
+    {
+        int columns = length * width + cases.size();
+
+        // counts the 1s first, so the arrays are made once
+        int ones = 0;
+        for(Suitcase suitcase : cases)
+        {
+            int area = suitcase.getLength() * suitcase.getWidth();
+            ones += positions(suitcase) * (area + 1);
+            if(!suitcase.isSquare())
+                ones += positions(suitcase.turned()) * (area + 1);
+        }
+
+        int total = 1 + columns + ones;
+        left = new int[total];
+        right = new int[total];
+        up = new int[total];
+        down = new int[total];
+        column = new int[total];
+        rowOf = new int[total];
+        size = new int[1 + columns];
+        rowCells.clear();
+        rowCases.clear();
+        rowsTried = 0;
+
+        // the root and the headers, in a circle
+        for(int header = 0; header <= columns; ++header)
+        {
+            left[header] = (header == 0) ? columns : header - 1;
+            right[header] = (header == columns) ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+        nodes = columns + 1;
+
+        for(int index = 0; index < cases.size(); ++index)
+        {
+            Suitcase suitcase = cases.get(index);
+            addRows(suitcase, index);
+            if(!suitcase.isSquare())
+                addRows(suitcase.turned(), index);
+        }
+    }
+
+    /**
+     * Counts the positions a suitcase fits at in an empty Trunk.
+     *
+     * @param suitcase The suitcase, in one orientation.
+     *
+     * @return The number of positions.
+     */
+    private int positions(Suitcase suitcase)
+    {
+        return Math.max(0, length - suitcase.getLength() + 1) * Math.max(0, width - suitcase.getWidth() + 1);
+    }
+
+    /**
+     * Adds a matrix row for every position of a suitcase in one orientation.
+     *
+     * @param suitcase The suitcase, in one orientation.
+     * @param index The suitcase's index in cases.
+     */
+    private void addRows(Suitcase suitcase, int index)
+    {
+        for(int row = 0; row + suitcase.getWidth() <= width; ++row)
+        {
+            for(int col = 0; col + suitcase.getLength() <= length; ++col)
+            {
+                int matrixRow = rowCases.size();
+                rowCells.add(new int[]{ row, col });
+                rowCases.add(suitcase);
+
+                // the suitcase's own column, then every cell it covers
+                int first = addNode(1 + length * width + index, matrixRow, -1);
+                for(int r = row; r < row + suitcase.getWidth(); ++r)
+                {
+                    for(int c = col; c < col + suitcase.getLength(); ++c)
+                        addNode(1 + r * length + c, matrixRow, first);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a 1 to the matrix, at the bottom of its column and at the end of its row.
+     *
+     * @param header The column's header node.
+     * @param matrixRow The matrix row.
+     * @param first The first node of the row, or -1 if this is the first.
+     *
+     * @return The new node.
+     */
+    private int addNode(int header, int matrixRow, int first)
+    {
+        int node = nodes++;
+        column[node] = header;
+        rowOf[node] = matrixRow;
+
+        // at the bottom of the column
+        up[node] = up[header];
+        down[node] = header;
+        down[up[header]] = node;
+        up[header] = node;
+        ++size[header];
+
+        // at the end of the row
+        if(first < 0)
+        {
+            left[node] = node;
+            right[node] = node;
+        }
+        else
+        {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Algorithm X: covers the column with the fewest 1s left with each of its rows in turn.
+     *
+     * @param depth How many rows have been chosen.
+     *
+     * @return True if every column is covered; false if there is no way to.
+     */
+    private boolean search(int depth)
+    {
+        if(right[0] == 0)
+            return true;
+
+        // the column with the fewest choices fails (or succeeds) the fastest
+        int best = right[0];
+        for(int header = right[best]; header != 0; header = right[header])
+        {
+            if(size[header] < size[best])
+                best = header;
+        }
+        if(listener != null)
+            listener.expanded(null, depth);
+        if(size[best] == 0)
+        {
+            if(listener != null)
+                listener.backtracked(null, depth);
+            return false;
+        }
+
+        cover(best);
+        for(int node = down[best]; node != best; node = down[node])
+        {
+            ++rowsTried;
+            if(listener != null)
+                listener.successor(null, depth + 1, true);
+            chosen[depth] = rowOf[node];
+            for(int other = right[node]; other != node; other = right[other])
+                cover(column[other]);
+
+            if(search(depth + 1))
+                return true;
+
+            for(int other = left[node]; other != node; other = left[other])
+                uncover(column[other]);
+        }
+        uncover(best);
+        if(listener != null)
+            listener.backtracked(null, depth);
+        return false;
+    }
+
+    /**
+     * Takes a column out of the header list, and every row with a 1 in it out of the other columns.
+     *
+     * @param header The column's header node.
+     */
+    private void cover(int header)
+    {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for(int row = down[header]; row != header; row = down[row])
+        {
+            for(int node = right[row]; node != row; node = right[node])
+            {
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                --size[column[node]];
+            }
+        }
+    }
+
+    /**
+     * Puts a covered column back, exactly undoing cover().
+     *
+     * @param header The column's header node.
+     */
+    private void uncover(int header)
+    {
+        for(int row = up[header]; row != header; row = up[row])
+        {
+            for(int node = left[row]; node != row; node = left[node])
+            {
+                ++size[column[node]];
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}
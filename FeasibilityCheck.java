@@ -0,0 +1,228 @@
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quick checks which show a problem has no solution without searching for one. Each looks at the sizes of the
+ * suitcases only, so it takes microseconds, while the search it saves can take minutes: the search only says no once
+ * it has tried every way of packing. When a check can't show there is no solution nothing is known, and the problem
+ * still has to be searched.
+ *
+ * How many problems each check rejected is counted, and the counts can be added to from several threads at once.
+ *
+ * @author Kevin Becker
+ */
+public class FeasibilityCheck
+{
+    /**
+     * Why a problem has no solution.
+     */
+    public enum Reason
+    {
+        /** The suitcases take up more area than the Trunk has. */
+        TOO_MUCH_AREA("the suitcases take up more area than the trunk has"),
+        /** A suitcase is too big for the Trunk either way around. */
+        CASE_TOO_BIG("a suitcase doesn't fit in the trunk either way around"),
+        /**
+         * The suitcases longer than half the Trunk's length (whichever way they go in) all cover its middle column, so
+         * they have to be stacked in different rows, and they are too wide to stack.
+         */
+        LONG_CASES_TOO_WIDE("the suitcases longer than half the trunk can't all be stacked in its width"),
+        /**
+         * The suitcases wider than half the Trunk's width (whichever way they go in) all cover its middle row, so they
+         * have to be side by side in different columns, and they are too long to fit side by side.
+         */
+        WIDE_CASES_TOO_LONG("the suitcases wider than half the trunk can't all fit side by side in its length");
+
+        /**
+         * What the reason means, for printing.
+         */
+        private final String description;
+
+        /**
+         * Makes a reason.
+         *
+         * @param description What the reason means.
+         */
+        Reason(String description)
+        {
+            this.description = description;
+        }
+
+        /**
+         * Getter for the description.
+         *
+         * @return What the reason means.
+         */
+        public String getDescription()
+        {
+            return description;
+        }
+    }
+
+    /**
+     * How many problems were checked.
+     */
+    private final LongAdder checked = new LongAdder();
+
+    /**
+     * How many problems were rejected for each reason.
+     */
+    private final Map<Reason, LongAdder> rejected = new EnumMap<>(Reason.class);
+
+    /**
+     * Makes a FeasibilityCheck with every count at 0.
+     */
+    public FeasibilityCheck()
+    {
+        for(Reason reason : Reason.values())
+            rejected.put(reason, new LongAdder());
+    }
+
+    /**
+     * Checks a problem.
+     *
+     * @param problem The problem.
+     *
+     * @return Why the problem has no solution, or empty if none of the checks could show it has none.
+     */
+    public Optional<Reason> check(TrunkProblem problem)
+    {
+        checked.increment();
+        Optional<Reason> reason = reason(problem.getLength(), problem.getWidth(), problem.getCases());
+        reason.ifPresent(r -> rejected.get(r).increment());
+        return reason;
+    }
+
+    /**
+     * Works out why a problem has no solution, without counting it.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param cases The suitcases.
+     *
+     * @return Why the problem has no solution, or empty if none of the checks could show it has none.
+     */
+    public static Optional<Reason> reason(int length, int width, List<Suitcase> cases)
+    {
+        long area = 0;
+        for(Suitcase suitcase : cases)
+        {
+            area += (long) suitcase.getLength() * suitcase.getWidth();
+            if(!fits(suitcase.getLength(), suitcase.getWidth(), length, width) &&
+                    !fits(suitcase.getWidth(), suitcase.getLength(), length, width))
+                return Optional.of(Reason.CASE_TOO_BIG);
+        }
+        if(area > (long) length * width)
+            return Optional.of(Reason.TOO_MUCH_AREA);
+
+        // any two spans longer than half of a side overlap, so all of them share a column (or row)
+        long stackedWidth = 0;
+        long sideBySideLength = 0;
+        for(Suitcase suitcase : cases)
+        {
+            int l = suitcase.getLength();
+            int w = suitcase.getWidth();
+            boolean asIs = fits(l, w, length, width);
+            boolean turned = fits(w, l, length, width);
+
+            // the least room it can take up across the other way, out of the ways around it fits
+            if(2 * minSpan(asIs, l, turned, w) > length)
+                stackedWidth += minSpan(asIs, w, turned, l);
+            if(2 * minSpan(asIs, w, turned, l) > width)
+                sideBySideLength += minSpan(asIs, l, turned, w);
+        }
+        if(stackedWidth > width)
+            return Optional.of(Reason.LONG_CASES_TOO_WIDE);
+        if(sideBySideLength > length)
+            return Optional.of(Reason.WIDE_CASES_TOO_LONG);
+        return Optional.empty();
+    }
+
+    /**
+     * Getter for the number of problems checked.
+     *
+     * @return How many problems check() was called on.
+     */
+    public long getChecked()
+    {
+        return checked.sum();
+    }
+
+    /**
+     * Getter for the number of problems rejected.
+     *
+     * @return How many problems were shown to have no solution, for any reason.
+     */
+    public long getRejected()
+    {
+        long total = 0;
+        for(LongAdder count : rejected.values())
+            total += count.sum();
+        return total;
+    }
+
+    /**
+     * Getter for the number of problems rejected for one reason.
+     *
+     * @param reason The reason.
+     *
+     * @return How many problems were shown to have no solution for that reason.
+     */
+    public long getRejected(Reason reason)
+    {
+        return rejected.get(reason).sum();
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return How many problems were rejected out of how many were checked, and how many for each reason.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder summary = new StringBuilder();
+        summary.append("rejected ").append(getRejected()).append(" of ").append(getChecked());
+        for(Reason reason : Reason.values())
+        {
+            if(getRejected(reason) > 0)
+                summary.append(", ").append(reason).append(' ').append(getRejected(reason));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Does a suitcase fit in the Trunk the way around it is?
+     *
+     * @param caseLength The length of the suitcase.
+     * @param caseWidth The width of the suitcase.
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     *
+     * @return True if it isn't longer or wider than the Trunk.
+     */
+    private static boolean fits(int caseLength, int caseWidth, int length, int width)
+    {
+        return caseLength <= length && caseWidth <= width;
+    }
+
+    /**
+     * Gets the smaller of two spans of a suitcase, out of the ways around it fits.
+     *
+     * @param asIs Does it fit the way around it is?
+     * @param asIsSpan The span the way around it is.
+     * @param turned Does it fit turned?
+     * @param turnedSpan The span turned.
+     *
+     * @return The smaller span of the ways it fits.
+     */
+    private static int minSpan(boolean asIs, int asIsSpan, boolean turned, int turnedSpan)
+    {
+        if(asIs && turned)
+            return Math.min(asIsSpan, turnedSpan);
+        return asIs ? asIsSpan : turnedSpan;
+    }
+}
@@ -0,0 +1,361 @@
+import java.util.Arrays;
+
+/**
+ * Keeps track of the empty space in a Trunk as its maximal empty rectangles: the empty rectangles which can't be made
+ * any bigger in any direction. They overlap, but every empty rectangle is inside at least one of them, so a suitcase
+ * fits somewhere if and only if it fits inside one of them. Asking where a suitcase fits looks at each of them once,
+ * instead of at each cell of the Trunk.
+ *
+ * Putting a suitcase in splits every rectangle it overlaps into the parts on each side of it, and drops the parts that
+ * are inside another rectangle. What was taken out and put in is logged, so the most recent suitcase can be taken back
+ * out again (for searching in place) by undoing exactly that, which puts every rectangle back where it was.
+ *
+ * @author Kevin Becker
+ */
+public class FreeSpaceIndex
+{
+    /**
+     * The number of ints each rectangle takes up: row, column, length (columns), width (rows).
+     */
+    private static final int FIELDS = 4;
+
+    /**
+     * The length of the Trunk.
+     */
+    private final int length;
+
+    /**
+     * The rectangles, FIELDS ints each.
+     */
+    private int[] rects;
+
+    /**
+     * How many rectangles there are.
+     */
+    private int count;
+
+    /**
+     * For each suitcase put in: each rectangle it took out followed by where it was, then how many it took out and how
+     * many it added.
+     */
+    private int[] log = new int[0];
+
+    /**
+     * How many ints of the log are used.
+     */
+    private int logSize;
+
+    /**
+     * The parts of the rectangles split by the last suitcase put in, while they are checked.
+     */
+    private int[] parts = new int[0];
+
+    /**
+     * Makes the index of an empty Trunk, which is one rectangle.
+     *
+     * @param length The length (columns) of the Trunk.
+     * @param width The width (rows) of the Trunk.
+     */
+    public FreeSpaceIndex(int length, int width)
+    {
+        this.length = length;
+        this.rects = new int[16 * FIELDS];
+        this.count = 0;
+        if(length > 0 && width > 0)
+            add(0, 0, length, width);
+    }
+
+    /**
+     * Copies an index. The copy starts with an empty log, so it can't undo what was put in before it was made.
+     *
+     * @param toCopy The index to copy.
+     */
+    private FreeSpaceIndex(FreeSpaceIndex toCopy)
+    {
+        this.length = toCopy.length;
+        this.rects = Arrays.copyOf(toCopy.rects, Math.max(toCopy.count * FIELDS, FIELDS));
+        this.count = toCopy.count;
+    }
+
+    /**
+     * Makes a copy of the index.
+     *
+     * @return A copy with the same rectangles.
+     */
+    public FreeSpaceIndex copy()
+    {
+        return new FreeSpaceIndex(this);
+    }
+
+    /**
+     * Getter for the number of maximal empty rectangles.
+     *
+     * @return How many there are.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Does a suitcase fit somewhere, the way around it is?
+     *
+     * @param suitcase The suitcase.
+     *
+     * @return True if some empty rectangle is big enough for it; false otherwise.
+     */
+    public boolean fits(Suitcase suitcase)
+    {
+        int caseLength = suitcase.getLength();
+        int caseWidth = suitcase.getWidth();
+        for(int i = 0; i < count * FIELDS; i += FIELDS)
+        {
+            if(rects[i + 2] >= caseLength && rects[i + 3] >= caseWidth)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Does a suitcase fit somewhere, either way around?
+     *
+     * @param suitcase The suitcase.
+     *
+     * @return True if some empty rectangle is big enough for it one way or the other; false otherwise.
+     */
+    public boolean fitsEitherWay(Suitcase suitcase)
+    {
+        return fits(suitcase) || !suitcase.isSquare() && fits(suitcase.turned());
+    }
+
+    /**
+     * Finds the first position at or after a cell (going across the rows) where a suitcase fits. A suitcase fits at a
+     * position when it is inside one of the rectangles there, so this is the earliest such position of any rectangle.
+     *
+     * @param fromCell The index (row * length + col) of the first position to look at.
+     * @param suitcase The suitcase, the way around it is.
+     *
+     * @return The index of the first position where it fits, or -1 if there isn't one.
+     */
+    public int nextOpen(int fromCell, Suitcase suitcase)
+    {
+        int caseLength = suitcase.getLength();
+        int caseWidth = suitcase.getWidth();
+        int fromRow = fromCell / length;
+        int fromCol = fromCell % length;
+        int first = Integer.MAX_VALUE;
+        for(int i = 0; i < count * FIELDS; i += FIELDS)
+        {
+            // the positions the suitcase fits at in this rectangle
+            int top = rects[i];
+            int left = rects[i + 1];
+            int lastRow = top + rects[i + 3] - caseWidth;
+            int lastCol = left + rects[i + 2] - caseLength;
+            if(lastRow < top || lastCol < left || fromRow > lastRow)
+                continue;
+
+            int cell;
+            if(fromRow < top || fromCol <= left)
+                cell = Math.max(fromRow, top) * length + left;
+            else if(fromCol <= lastCol)
+                cell = fromCell;
+            else if(fromRow < lastRow)
+                cell = (fromRow + 1) * length + left;
+            else
+                continue;
+            first = Math.min(first, cell);
+        }
+        return (first == Integer.MAX_VALUE) ? -1 : first;
+    }
+
+    /**
+     * Takes up the space of a suitcase put in, and logs what changed so it can be undone.
+     *
+     * @param row The row of the top left corner of the suitcase.
+     * @param col The column of the top left corner of the suitcase.
+     * @param suitcase The suitcase, the way around it went in.
+     */
+    public void place(int row, int col, Suitcase suitcase)
+    {
+        int bottom = row + suitcase.getWidth();
+        int right = col + suitcase.getLength();
+        int removed = 0;
+        int split = 0;
+
+        // every rectangle the suitcase overlaps comes out, and the parts of it on each side are kept to check
+        for(int i = 0; i < count * FIELDS; )
+        {
+            int top = rects[i];
+            int left = rects[i + 1];
+            int rectRight = left + rects[i + 2];
+            int rectBottom = top + rects[i + 3];
+            if(top >= bottom || row >= rectBottom || left >= right || col >= rectRight)
+            {
+                i += FIELDS;
+                continue;
+            }
+
+            ensureLog(FIELDS + 1);
+            System.arraycopy(rects, i, log, logSize, FIELDS);
+            logSize += FIELDS;
+            log[logSize++] = i;
+            ++removed;
+
+            if(top < row)
+                split = addPart(split, top, left, rectRight - left, row - top);
+            if(bottom < rectBottom)
+                split = addPart(split, bottom, left, rectRight - left, rectBottom - bottom);
+            if(left < col)
+                split = addPart(split, top, left, col - left, rectBottom - top);
+            if(right < rectRight)
+                split = addPart(split, top, right, rectRight - right, rectBottom - top);
+
+            // the last rectangle is moved into the hole, and looked at next
+            --count;
+            System.arraycopy(rects, count * FIELDS, rects, i, FIELDS);
+        }
+
+        // a part inside another part, or inside a rectangle that was kept, isn't maximal
+        int added = 0;
+        for(int p = 0; p < split * FIELDS; p += FIELDS)
+        {
+            if(!containedInRects(p) && !containedInParts(p, split))
+            {
+                add(parts[p], parts[p + 1], parts[p + 2], parts[p + 3]);
+                ++added;
+            }
+        }
+
+        ensureLog(2);
+        log[logSize++] = removed;
+        log[logSize++] = added;
+    }
+
+    /**
+     * Undoes the last place() which hasn't been undone.
+     */
+    public void undo()
+    {
+        int added = log[--logSize];
+        int removed = log[--logSize];
+
+        // everything since has been undone, so the added ones are still at the end
+        count -= added;
+
+        // each rectangle taken out had the last one moved into its place, so that is moved back to the end
+        for(int r = 0; r < removed; ++r)
+        {
+            int i = log[--logSize];
+            logSize -= FIELDS;
+            System.arraycopy(rects, i, rects, count * FIELDS, FIELDS);
+            System.arraycopy(log, logSize, rects, i, FIELDS);
+            ++count;
+        }
+    }
+
+    /**
+     * Adds a part of a split rectangle to the ones to check.
+     *
+     * @param split How many parts there are so far.
+     * @param top The part's top row.
+     * @param left The part's left column.
+     * @param partLength The part's length.
+     * @param partWidth The part's width.
+     *
+     * @return How many parts there are now.
+     */
+    private int addPart(int split, int top, int left, int partLength, int partWidth)
+    {
+        if(parts.length < (split + 1) * FIELDS)
+            parts = Arrays.copyOf(parts, Math.max(parts.length * 2, 8 * FIELDS));
+        int p = split * FIELDS;
+        parts[p] = top;
+        parts[p + 1] = left;
+        parts[p + 2] = partLength;
+        parts[p + 3] = partWidth;
+        return split + 1;
+    }
+
+    /**
+     * Is a part inside one of the rectangles?
+     *
+     * @param p Where the part starts in parts.
+     *
+     * @return True if some rectangle has all of it; false otherwise.
+     */
+    private boolean containedInRects(int p)
+    {
+        for(int i = 0; i < count * FIELDS; i += FIELDS)
+        {
+            if(contains(rects, i, parts, p))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Is a part inside another part? Of two equal parts, only the later one counts as inside, so one of them is kept.
+     *
+     * @param p Where the part starts in parts.
+     * @param split How many parts there are.
+     *
+     * @return True if another part has all of it; false otherwise.
+     */
+    private boolean containedInParts(int p, int split)
+    {
+        for(int q = 0; q < split * FIELDS; q += FIELDS)
+        {
+            if(q != p && contains(parts, q, parts, p) && (q < p || !contains(parts, p, parts, q)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Is one rectangle inside another?
+     *
+     * @param outer The array the outer rectangle is in.
+     * @param o Where the outer rectangle starts.
+     * @param inner The array the inner rectangle is in.
+     * @param i Where the inner rectangle starts.
+     *
+     * @return True if all of the inner rectangle is in the outer one.
+     */
+    private static boolean contains(int[] outer, int o, int[] inner, int i)
+    {
+        return outer[o] <= inner[i] && outer[o + 1] <= inner[i + 1] &&
+                outer[o] + outer[o + 3] >= inner[i] + inner[i + 3] &&
+                outer[o + 1] + outer[o + 2] >= inner[i + 1] + inner[i + 2];
+    }
+
+    /**
+     * Adds a rectangle at the end.
+     *
+     * @param top Its top row.
+     * @param left Its left column.
+     * @param rectLength Its length.
+     * @param rectWidth Its width.
+     */
+    private void add(int top, int left, int rectLength, int rectWidth)
+    {
+        if(rects.length < (count + 1) * FIELDS)
+            rects = Arrays.copyOf(rects, rects.length * 2);
+        int i = count * FIELDS;
+        rects[i] = top;
+        rects[i + 1] = left;
+        rects[i + 2] = rectLength;
+        rects[i + 3] = rectWidth;
+        ++count;
+    }
+
+    /**
+     * Makes sure the log has room for more ints.
+     *
+     * @param more How many more ints are about to be logged.
+     */
+    private void ensureLog(int more)
+    {
+        if(log.length < logSize + more)
+            log = Arrays.copyOf(log, Math.max(Math.max(log.length * 2, logSize + more), 64));
+    }
+}
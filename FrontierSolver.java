@@ -0,0 +1,546 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits one hard problem between several JVMs, on one machine or on several sharing a directory.
+ *
+ * Splitting searches the top levels of the problem (NEXT_SUITCASE branching, so the Trunks at a level have nothing in
+ * common below them) and writes each Trunk it reaches at the last level to its own work file: the suitcases in it and
+ * where, and the suitcases left. Workers then claim work files one at a time by renaming them, which only one worker
+ * can do, and search each Trunk with a Backtracker. The first worker to find a solution writes it to the directory along
+ * with a stop marker, and every worker stops soon after it sees the marker. If every work file is done and there is no
+ * solution, the problem has none.
+ *
+ * The directory has:
+ * <ul>
+ *     <li>N.work: a Trunk nobody has claimed yet.</li>
+ *     <li>N.claimed: a Trunk a worker is searching.</li>
+ *     <li>N.done: a Trunk which has been searched, without a solution.</li>
+ *     <li>solution.txt: the solution, once one is found.</li>
+ *     <li>STOP: there for workers to stop on (once a solution is found, or to give up).</li>
+ * </ul>
+ * A worker that dies leaves its Trunk claimed; renaming N.claimed back to N.work lets another worker take it.
+ *
+ * Run with:
+ *     java FrontierSolver split [-k levels] problemFile directory
+ *     java FrontierSolver work [--bitboard] [--anchored] [--constrained] [--prune] [--freespace] directory
+ *     java FrontierSolver status directory
+ *     java FrontierSolver run [-k levels] [-w workers] [worker options] problemFile directory
+ * where run splits, starts the workers as new JVMs on this machine, waits for them and prints the answer.
+ *
+ * @author Kevin Becker
+ */
+public class FrontierSolver
+{
+    /**
+     * Marks the start of a work file.
+     */
+    private static final int WORK_MAGIC = 0x46524e54;
+
+    /**
+     * The levels split off when none are given.
+     */
+    private static final int DEFAULT_LEVELS = 3;
+
+    /**
+     * How many Trunks a worker searches between looks for the stop marker.
+     */
+    private static final int STOP_INTERVAL = 100_000;
+
+    /**
+     * The endings of the work files in each state, and the names of the other files.
+     */
+    private static final String WORK = ".work";
+    private static final String CLAIMED = ".claimed";
+    private static final String DONE = ".done";
+    private static final String SOLUTION = "solution.txt";
+    private static final String STOP = "STOP";
+
+    /**
+     * The shared directory.
+     */
+    private final Path directory;
+
+    /**
+     * What searches the work files (its cancellation is set to the stop marker while a worker is working).
+     */
+    private final Backtracker backtracker;
+
+    /**
+     * How many Trunks the current work file has had searched so far.
+     */
+    private long nodes;
+
+    /**
+     * Has the stop marker been seen?
+     */
+    private boolean stopped;
+
+    /**
+     * Makes a FrontierSolver for a shared directory.
+     *
+     * @param directory The directory the work files are in.
+     */
+    public FrontierSolver(Path directory)
+    {
+        this(directory, new Backtracker(false));
+    }
+
+    /**
+     * Makes a FrontierSolver for a shared directory which searches its work files with a given Backtracker, e.g. one
+     * with a listener, transposition table or trace.
+     *
+     * @param directory The directory the work files are in.
+     * @param backtracker What searches the work files; work() sets its cancellation.
+     */
+    public FrontierSolver(Path directory, Backtracker backtracker)
+    {
+        this.directory = directory;
+        this.backtracker = backtracker;
+    }
+
+    /**
+     * Splits, works, reports or runs, as described above.
+     *
+     * @param args The command and its options.
+     *
+     * @throws IOException if the problem file or directory can't be read or written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if(args.length < 2)
+            usage();
+
+        TrunkOptions options = new TrunkOptions();
+        List<String> workerOptions = new ArrayList<>();
+        int levels = DEFAULT_LEVELS;
+        int workers = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+        for(int i = 1; i < args.length; ++i)
+        {
+            switch(args[i])
+            {
+                case "-k" -> levels = Integer.parseInt(args[++i]);
+                case "-w" -> workers = Integer.parseInt(args[++i]);
+                case "--bitboard" -> options.setGridType(Trunk.GridType.BITBOARD);
+                case "--anchored" -> options.setBranching(Trunk.Branching.FIRST_EMPTY_CELL);
+                case "--constrained" -> options.setBranching(Trunk.Branching.MOST_CONSTRAINED);
+                case "--prune" -> options.setAreaPruning(true).setRegionPruning(true);
+                case "--freespace" -> options.setFreeSpaceIndex(true);
+                default -> paths.add(args[i]);
+            }
+            if(args[i].startsWith("--"))
+                workerOptions.add(args[i]);
+        }
+
+        switch(args[0])
+        {
+            case "split" ->
+            {
+                if(paths.size() != 2)
+                    usage();
+                FrontierSolver frontier = new FrontierSolver(Paths.get(paths.get(1)));
+                System.out.println(frontier.split(TrunkProblem.read(paths.get(0)), levels) + " work files");
+            }
+            case "work" ->
+            {
+                if(paths.size() != 1)
+                    usage();
+                FrontierSolver frontier = new FrontierSolver(Paths.get(paths.get(0)));
+                System.out.println("searched " + frontier.work(options) + " work files");
+            }
+            case "status" ->
+            {
+                if(paths.size() != 1)
+                    usage();
+                System.out.println(new FrontierSolver(Paths.get(paths.get(0))).status());
+            }
+            case "run" ->
+            {
+                if(paths.size() != 2)
+                    usage();
+                FrontierSolver frontier = new FrontierSolver(Paths.get(paths.get(1)));
+                frontier.split(TrunkProblem.read(paths.get(0)), levels);
+                frontier.runWorkers(workers, workerOptions);
+                System.out.println(frontier.status());
+            }
+            default -> usage();
+        }
+    }
+
+    /**
+     * Prints how to run FrontierSolver and exits.
+     */
+    private static void usage()
+    {
+        System.err.println("Usage: java FrontierSolver split [-k levels] problemFile directory");
+        System.err.println("       java FrontierSolver work [--bitboard] [--anchored] [--constrained] [--prune] " +
+                "[--freespace] directory");
+        System.err.println("       java FrontierSolver status directory");
+        System.err.println("       java FrontierSolver run [-k levels] [-w workers] [worker options] problemFile " +
+                "directory");
+        System.exit(1);
+    }
+
+    /**
+     * Searches the top levels of a problem and writes a work file for each Trunk at the last of them. A problem the
+     * FeasibilityCheck rejects gets no work files, and a solution found in the top levels is written straight away.
+     * Work files tell the suitcases apart by name, so every suitcase must have its own.
+     *
+     * @param problem The problem.
+     * @param levels How many suitcases deep to split.
+     *
+     * @return How many work files were written.
+     *
+     * @throws IllegalArgumentException if two suitcases have the same name
+     * @throws IOException if the directory can't be written
+     */
+    public int split(TrunkProblem problem, int levels) throws IOException
+    {
+        Set<Character> names = new HashSet<>();
+        for(Suitcase suitcase : problem.getCases())
+        {
+            if(!names.add(suitcase.getName()))
+                throw new IllegalArgumentException("More than one suitcase is named " + suitcase.getName());
+        }
+
+        Files.createDirectories(directory);
+        if(FeasibilityCheck.reason(problem.getLength(), problem.getWidth(), problem.getCases()).isPresent())
+            return 0;
+
+        int[] written = new int[1];
+        expand(problem, problem.toTrunk(new TrunkOptions()), levels, written);
+        return written[0];
+    }
+
+    /**
+     * Claims and searches work files until there are none left or the stop marker is there.
+     *
+     * @param options How each Trunk is stored and searched.
+     *
+     * @return How many work files this worker searched.
+     *
+     * @throws IOException if the directory can't be read or written
+     */
+    public int work(TrunkOptions options) throws IOException
+    {
+        int searched = 0;
+        stopped = false;
+        backtracker.setCancellation(() -> stopped || ++nodes % STOP_INTERVAL == 0 && stopSeen());
+        Path claimed;
+        while(!stopSeen() && (claimed = claim()) != null)
+        {
+            Trunk trunk = read(claimed, options);
+            nodes = 0;
+            if(backtracker.solveInPlace(trunk).isPresent())
+            {
+                finish(trunk);
+                return searched + 1;
+            }
+
+            // stopping part of the way through leaves the work unfinished, so it stays claimed
+            if(stopped)
+                return searched;
+            Files.move(claimed, withEnding(claimed, DONE), StandardCopyOption.ATOMIC_MOVE);
+            ++searched;
+        }
+        return searched;
+    }
+
+    /**
+     * Describes how far the work has got.
+     *
+     * @return The solution if there is one; NO if every work file is done without one; otherwise how many work files
+     *         are left, claimed and done.
+     *
+     * @throws IOException if the directory can't be read
+     */
+    public String status() throws IOException
+    {
+        Path solution = directory.resolve(SOLUTION);
+        if(Files.exists(solution))
+            return "YES" + System.lineSeparator() + Files.readString(solution);
+
+        int[] counts = new int[3];
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory))
+        {
+            for(Path file : files)
+            {
+                String name = file.getFileName().toString();
+                if(name.endsWith(WORK))
+                    ++counts[0];
+                else if(name.endsWith(CLAIMED))
+                    ++counts[1];
+                else if(name.endsWith(DONE))
+                    ++counts[2];
+            }
+        }
+        if(counts[0] == 0 && counts[1] == 0)
+            return "NO";
+        return counts[0] + " to do, " + counts[1] + " claimed, " + counts[2] + " done";
+    }
+
+    /**
+     * Starts workers as new JVMs on this machine, with the same class path, and waits for all of them.
+     *
+     * @param workers How many to start.
+     * @param workerOptions The options to give each of them.
+     *
+     * @throws IOException if a worker can't be started
+     * @throws InterruptedException if interrupted while waiting for them
+     */
+    public void runWorkers(int workers, List<String> workerOptions) throws IOException, InterruptedException
+    {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        for(int i = 0; i < workers; ++i)
+        {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    FrontierSolver.class.getName(), "work"));
+            command.addAll(workerOptions);
+            command.add(directory.toString());
+            processes.add(new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        for(Process process : processes)
+            process.waitFor();
+    }
+
+    /**
+     * Searches down to the last level to split at, writing a work file for each Trunk there (or the solution, if one
+     * is found on the way).
+     *
+     * @param problem The problem, for the size of the Trunk.
+     * @param trunk The Trunk being searched, in place.
+     * @param levels How many more suitcases deep to go.
+     * @param written How many work files have been written so far.
+     *
+     * @return True if a solution was found.
+     *
+     * @throws IOException if a work file can't be written
+     */
+    private boolean expand(TrunkProblem problem, Trunk trunk, int levels, int[] written) throws IOException
+    {
+        if(trunk.isGoal())
+        {
+            finish(trunk);
+            return true;
+        }
+        if(levels == 0)
+        {
+            write(directory.resolve(String.format("%06d", written[0]++) + WORK), problem, trunk);
+            return false;
+        }
+
+        for(int move = trunk.nextMove(MutableConfiguration.NO_MOVE); move != MutableConfiguration.NO_MOVE;
+                move = trunk.nextMove(move))
+        {
+            trunk.apply(move);
+            if(trunk.isValid() && expand(problem, trunk, levels - 1, written))
+                return true;
+            trunk.undo(move);
+        }
+        return false;
+    }
+
+    /**
+     * Claims the first work file nobody else has, by renaming it.
+     *
+     * @return The claimed file, or null if there are none left.
+     *
+     * @throws IOException if the directory can't be read
+     */
+    private Path claim() throws IOException
+    {
+        List<Path> work = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + WORK))
+        {
+            files.forEach(work::add);
+        }
+        work.sort(null);
+        for(Path file : work)
+        {
+            Path claimed = withEnding(file, CLAIMED);
+            try
+            {
+                Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+                return claimed;
+            }
+            catch(NoSuchFileException | FileAlreadyExistsException e)
+            {
+                // another worker claimed it first
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the solution and the stop marker. If another worker has already written a solution, that one is kept.
+     *
+     * @param trunk The solved Trunk.
+     *
+     * @throws IOException if the directory can't be written
+     */
+    private void finish(Trunk trunk) throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        trunk.appendGrid(text);
+
+        // a rename would replace a solution already there, but a link can only be made where nothing is, so the first
+        // solution linked in is kept, and nobody ever sees part of one
+        Path temporary = Files.createTempFile(directory, SOLUTION, ".tmp");
+        try
+        {
+            Files.writeString(temporary, text);
+            Files.createLink(directory.resolve(SOLUTION), temporary);
+        }
+        catch(FileAlreadyExistsException e)
+        {
+            // another worker's solution is there already
+        }
+        finally
+        {
+            Files.delete(temporary);
+        }
+        stop();
+    }
+
+    /**
+     * Leaves the stop marker for every worker.
+     *
+     * @throws IOException if the directory can't be written
+     */
+    private void stop() throws IOException
+    {
+        try
+        {
+            Files.createFile(directory.resolve(STOP));
+        }
+        catch(FileAlreadyExistsException e)
+        {
+            // it's already there
+        }
+        stopped = true;
+    }
+
+    /**
+     * Looks for the stop marker.
+     *
+     * @return True if it is there (and from then on).
+     */
+    private boolean stopSeen()
+    {
+        if(!stopped && Files.exists(directory.resolve(STOP)))
+            stopped = true;
+        return stopped;
+    }
+
+    /**
+     * Writes a Trunk to a work file: the size of the Trunk, then each suitcase in it with where it is, then each
+     * suitcase left. The file is written under another name and renamed, so a worker never claims half of one.
+     *
+     * @param file The work file.
+     * @param problem The problem, for the size of the Trunk.
+     * @param trunk The Trunk.
+     *
+     * @throws IOException if the file can't be written
+     */
+    private static void write(Path file, TrunkProblem problem, Trunk trunk) throws IOException
+    {
+        List<Placement> placed = trunk.placements();
+        List<Suitcase> left = trunk.remaining();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+        {
+            out.writeInt(WORK_MAGIC);
+            out.writeShort(problem.getLength());
+            out.writeShort(problem.getWidth());
+            out.writeShort(placed.size());
+            for(Placement placement : placed)
+            {
+                out.writeChar(placement.getSuitcase().getName());
+                out.writeShort(placement.getRow());
+                out.writeShort(placement.getCol());
+                out.writeShort(placement.getSuitcase().getLength());
+                out.writeShort(placement.getSuitcase().getWidth());
+            }
+            out.writeShort(left.size());
+            for(Suitcase suitcase : left)
+            {
+                out.writeChar(suitcase.getName());
+                out.writeShort(suitcase.getLength());
+                out.writeShort(suitcase.getWidth());
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a Trunk from a work file.
+     *
+     * @param file The work file.
+     * @param options How the Trunk should be stored and searched.
+     *
+     * @return The Trunk, with the suitcases in it where they were and the rest left to add.
+     *
+     * @throws IOException if the file can't be read, or isn't a work file
+     */
+    private static Trunk read(Path file, TrunkOptions options) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if(in.readInt() != WORK_MAGIC)
+                throw new IOException(file + " is not a work file");
+            int length = in.readShort();
+            int width = in.readShort();
+
+            int[][] positions = new int[in.readShort()][];
+            List<Suitcase> placed = new ArrayList<>();
+            for(int i = 0; i < positions.length; ++i)
+            {
+                char name = in.readChar();
+                positions[i] = new int[]{ in.readShort(), in.readShort() };
+                placed.add(new Suitcase(name, in.readShort(), in.readShort()));
+            }
+            List<Suitcase> cases = new ArrayList<>(placed);
+            int left = in.readShort();
+            for(int i = 0; i < left; ++i)
+                cases.add(new Suitcase(in.readChar(), in.readShort(), in.readShort()));
+
+            Trunk trunk = new TrunkProblem(length, width, cases).toTrunk(options);
+            for(int i = 0; i < positions.length; ++i)
+                trunk.putSuitcase(positions[i][0], positions[i][1], placed.get(i));
+            return trunk;
+        }
+    }
+
+    /**
+     * Gets the name a file has in another state.
+     *
+     * @param file The file.
+     * @param ending The ending for the new state.
+     *
+     * @return The file with its ending replaced.
+     */
+    private static Path withEnding(Path file, String ending)
+    {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ending);
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A quick try at packing a Trunk before searching for a packing. Each suitcase in turn goes in at its bottom-left
+ * position: the first cell (going across the rows) where it fits, whichever way around gets there first. Nothing is
+ * ever taken back out, so a try costs one pass over the suitcases.
+ *
+ * Going biggest first is the same as the first path the Backtracker would go down, so a few other orders are tried
+ * after it (longest side first, shortest side first, biggest perimeter first). Many easy problems are packed by one of
+ * them in microseconds; when none of them works the problem still has to be searched, since a greedy packing failing
+ * says nothing about whether there is a packing.
+ *
+ * The counts of tries and packings can be added to from several threads at once, so one GreedyPacker can be shared.
+ * So the fast path can be judged by its median and not just its average, the time of each problem it packs goes in one
+ * LatencyHistogram, and the time of each problem it doesn't pack (the try plus the search after it, told to it by
+ * whoever searched) goes in another.
+ *
+ * @author Kevin Becker
+ */
+public class GreedyPacker
+{
+    /**
+     * How many problems were tried.
+     */
+    private final LongAdder attempts = new LongAdder();
+
+    /**
+     * How many problems were packed.
+     */
+    private final LongAdder packed = new LongAdder();
+
+    /**
+     * How long the tries took altogether, in nanoseconds.
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * How long each problem that was packed took.
+     */
+    private final LatencyHistogram packedTimes = new LatencyHistogram();
+
+    /**
+     * How long each problem that wasn't packed took to solve, from the start of its try to the end of its search.
+     */
+    private final LatencyHistogram searchedTimes = new LatencyHistogram();
+
+    /**
+     * Tries to pack a problem greedily.
+     *
+     * @param problem The problem.
+     * @param options How the Trunk given back should be stored.
+     *
+     * @return A solved Trunk, or empty if no order packed every suitcase (which doesn't mean there is no solution).
+     */
+    public Optional<Configuration> pack(TrunkProblem problem, TrunkOptions options)
+    {
+        long begin = System.nanoTime();
+        attempts.increment();
+        Optional<Configuration> trunk = packInSomeOrder(problem, options);
+        long time = System.nanoTime() - begin;
+        nanos.add(time);
+        if(trunk.isPresent())
+        {
+            packed.increment();
+            packedTimes.record(time);
+        }
+        return trunk;
+    }
+
+    /**
+     * Counts how long a problem pack() couldn't pack took to solve another way.
+     *
+     * @param nanos How long it took altogether, from just before pack() was called to when the search finished, in
+     *              nanoseconds.
+     */
+    public void searched(long nanos)
+    {
+        searchedTimes.record(nanos);
+    }
+
+    /**
+     * Tries each order in turn until one of them packs the problem.
+     *
+     * @param problem The problem.
+     * @param options How the Trunk given back should be stored.
+     *
+     * @return A solved Trunk, or empty if no order packed every suitcase.
+     */
+    private static Optional<Configuration> packInSomeOrder(TrunkProblem problem, TrunkOptions options)
+    {
+        List<Suitcase> cases = problem.getCases();
+        int area = 0;
+        for(Suitcase suitcase : cases)
+            area += suitcase.getLength() * suitcase.getWidth();
+        if(area > problem.getLength() * problem.getWidth())
+            return Optional.empty();
+
+        // the Trunk's own order first
+        for(SuitcaseOrder order : SuitcaseOrder.values())
+        {
+            cases.sort(order);
+            Optional<Configuration> trunk = pack(problem, cases, options);
+            if(trunk.isPresent())
+                return trunk;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Getter for the number of problems tried.
+     *
+     * @return How many problems pack() was called on.
+     */
+    public long getAttempts()
+    {
+        return attempts.sum();
+    }
+
+    /**
+     * Getter for the number of problems packed.
+     *
+     * @return How many problems were answered without searching.
+     */
+    public long getPacked()
+    {
+        return packed.sum();
+    }
+
+    /**
+     * Getter for the time spent trying.
+     *
+     * @return How long every call to pack() took altogether, in nanoseconds.
+     */
+    public long getNanos()
+    {
+        return nanos.sum();
+    }
+
+    /**
+     * Getter for the times of the problems that were packed.
+     *
+     * @return How long each call to pack() that packed its problem took.
+     */
+    public LatencyHistogram getPackedTimes()
+    {
+        return packedTimes;
+    }
+
+    /**
+     * Getter for the times of the problems that had to be searched.
+     *
+     * @return How long each problem counted by searched() took altogether.
+     */
+    public LatencyHistogram getSearchedTimes()
+    {
+        return searchedTimes;
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return How many problems were packed out of how many were tried, the average time a try took, and the median
+     *         and 90th percentile times of the problems packed and of the ones searched.
+     */
+    @Override
+    public String toString()
+    {
+        long tries = getAttempts();
+        return String.format("packed %d of %d (%.1f%%), %.3f us per try; packed in %s; searched in %s", getPacked(),
+                tries, (tries == 0) ? 0.0 : 100.0 * getPacked() / tries,
+                (tries == 0) ? 0.0 : getNanos() / 1000.0 / tries, packedTimes, searchedTimes);
+    }
+
+    /**
+     * Packs the suitcases in one order, each at its bottom-left position.
+     *
+     * @param problem The problem.
+     * @param cases The problem's suitcases in the order to put them in.
+     * @param options How the Trunk given back should be stored.
+     *
+     * @return The packed Trunk, or empty if a suitcase didn't fit anywhere.
+     */
+    private static Optional<Configuration> pack(TrunkProblem problem, List<Suitcase> cases, TrunkOptions options)
+    {
+        int length = problem.getLength();
+        Occupancy grid = options.getGridType().create(length, problem.getWidth());
+
+        List<Suitcase> oriented = new ArrayList<>(cases.size());
+        List<Integer> cells = new ArrayList<>(cases.size());
+        for(Suitcase suitcase : cases)
+        {
+            int cell = grid.nextOpen(0, suitcase);
+            int turnedCell = suitcase.isSquare() ? -1 : grid.nextOpen(0, suitcase.turned());
+
+            // takes whichever way around goes in first, not turned on a tie
+            Suitcase placed = suitcase;
+            if(turnedCell >= 0 && (cell < 0 || turnedCell < cell))
+            {
+                placed = suitcase.turned();
+                cell = turnedCell;
+            }
+            if(cell < 0)
+                return Optional.empty();
+
+            grid.fill(cell / length, cell % length, placed);
+            oriented.add(placed);
+            cells.add(cell);
+        }
+
+        Trunk trunk = problem.toTrunk(options);
+        for(int i = 0; i < oriented.size(); ++i)
+            trunk.putSuitcase(cells.get(i) / length, cells.get(i) % length, oriented.get(i));
+        return Optional.of(trunk);
+    }
+}
@@ -0,0 +1,387 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * The same search as Backtracker, but with an explicit stack instead of
+ * recursion, so deep searches cannot overflow the call stack. It finds
+ * the same solution Backtracker does.
+ *
+ * When searching in place the stack is just one int per depth: the move
+ * currently being tried there. That is all it takes to rebuild the
+ * search, so it can be checkpointed to a file every so often, and a
+ * later search of the same problem with the same file picks up where
+ * the checkpoint left off. The file says what its moves mean, so it
+ * can't be picked up by a search whose moves mean something else.
+ *
+ * @author Kevin Becker
+ */
+public class IterativeBacktracker {
+    /**
+     * Marks the start of a checkpoint file (of the current version: one
+     * which says what its moves mean).
+     */
+    private static final int CHECKPOINT_MAGIC = 0x54524e32;
+
+    /*
+     * Where the search is checkpointed to (null if it isn't)
+     */
+    private Path checkpoint;
+
+    /*
+     * How many configurations are expanded between checkpoints
+     */
+    private long checkpointInterval;
+
+    /*
+     * Who is told about each step of the search (null if no one)
+     */
+    private SearchListener listener;
+
+    /**
+     * Checkpoint searches in place to a file. If the file is there when
+     * a search starts, the search resumes from it; it is deleted when
+     * the search finishes.
+     *
+     * @param checkpoint The file to checkpoint to, or null to stop
+     *                   checkpointing
+     * @param interval   How many configurations to expand between
+     *                   checkpoints
+     */
+    public void setCheckpoint( Path checkpoint, long interval ) {
+        if ( interval < 1 ) {
+            throw new IllegalArgumentException( "interval must be positive" );
+        }
+        this.checkpoint = checkpoint;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Tell a listener about each step of every search.
+     *
+     * @param listener The listener to tell, or null to stop telling one
+     */
+    public void setSearchListener( SearchListener listener ) {
+        this.listener = listener;
+    }
+
+    /**
+     * Try find a solution, if one exists, for a given configuration.
+     * Each frame of the stack holds a configuration and the iterator
+     * over its successors.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or empty if no solution
+     */
+    public Optional< Configuration > solve( Configuration config ) {
+        if ( this.listener != null ) {
+            this.listener.searchStarted( config );
+        }
+        Optional< Configuration > sol = search( config );
+        if ( this.listener != null ) {
+            this.listener.searchFinished( sol.isPresent() );
+        }
+        return sol;
+    }
+
+    /**
+     * The loop of solve.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or empty if no solution
+     */
+    private Optional< Configuration > search( Configuration config ) {
+        Deque< Frame > stack = new ArrayDeque<>();
+        if ( config.isGoal() ) {
+            solved( config, 0 );
+            return Optional.of( config );
+        }
+        stack.push( expand( config, 0 ) );
+        while ( !stack.isEmpty() ) {
+            Frame top = stack.peek();
+            int depth = stack.size();
+            if ( !top.successors.hasNext() ) {
+                if ( this.listener != null ) {
+                    this.listener.backtracked( top.config, depth - 1 );
+                }
+                stack.pop();
+                continue;
+            }
+            Configuration child = top.successors.next();
+            boolean valid = child.isValid();
+            if ( this.listener != null ) {
+                this.listener.successor( child, depth, valid );
+            }
+            if ( valid ) {
+                if ( child.isGoal() ) {
+                    solved( child, depth );
+                    return Optional.of( child );
+                }
+                stack.push( expand( child, depth ) );
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Make the stack frame for a configuration which is not a goal.
+     *
+     * @param config The configuration
+     * @param depth  How many moves config is from the start
+     * @return The frame, with its successors not yet looked at
+     */
+    private Frame expand( Configuration config, int depth ) {
+        if ( this.listener != null ) {
+            this.listener.expanded( config, depth );
+        }
+        return new Frame( config, config.getSuccessors().iterator() );
+    }
+
+    /**
+     * Tell the listener that a goal was reached.
+     *
+     * @param config The goal
+     * @param depth  How many moves config is from the start
+     */
+    private void solved( Configuration config, int depth ) {
+        if ( this.listener != null ) {
+            this.listener.solved( config, depth );
+        }
+    }
+
+    /**
+     * Try find a solution, if one exists, by searching a single
+     * configuration in place. If there is a checkpoint file for this
+     * configuration, the search resumes from it.
+     *
+     * @param config A valid configuration which can be searched in place
+     * @return The same config, left in its solved state, or empty if
+     *         there is no solution (config is then back how it started)
+     */
+    public Optional< Configuration > solveInPlace(
+            MutableConfiguration config ) {
+        if ( this.listener != null ) {
+            this.listener.searchStarted( config );
+        }
+        boolean solved = searchInPlace( config );
+        if ( this.listener != null ) {
+            this.listener.searchFinished( solved );
+        }
+        if ( this.checkpoint != null ) {
+            try {
+                Files.deleteIfExists( this.checkpoint );
+            }
+            catch ( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+        return solved ? Optional.of( config ) : Optional.empty();
+    }
+
+    /**
+     * The loop of solveInPlace. moves[d] is the move being tried at
+     * depth d; the moves below depth are applied to config.
+     *
+     * @param config The configuration being searched
+     * @return true if config is now a goal; false if every move failed
+     */
+    private boolean searchInPlace( MutableConfiguration config ) {
+        long fingerprint = fingerprint( config );
+        String description = config.describeMoves();
+        int[] moves = resume( config, fingerprint, description );
+        int depth = moves.length - 1;
+        if ( depth == 0 && moves[ 0 ] == MutableConfiguration.NO_MOVE ) {
+            // a fresh search has to look at the starting configuration
+            if ( config.isGoal() ) {
+                solved( config, 0 );
+                return true;
+            }
+            expandInPlace( config, 0 );
+        }
+        long untilCheckpoint = this.checkpointInterval;
+
+        while ( true ) {
+            int move = config.nextMove( moves[ depth ] );
+            if ( move == MutableConfiguration.NO_MOVE ) {
+                if ( this.listener != null ) {
+                    this.listener.backtracked( config, depth );
+                }
+                if ( depth == 0 ) {
+                    return false;
+                }
+                --depth;
+                config.undo( moves[ depth ] );
+                continue;
+            }
+            moves[ depth ] = move;
+            config.apply( move );
+            boolean valid = config.isValid();
+            if ( this.listener != null ) {
+                this.listener.successor( config, depth + 1, valid );
+            }
+            if ( !valid ) {
+                config.undo( move );
+                continue;
+            }
+
+            ++depth;
+            if ( config.isGoal() ) {
+                solved( config, depth );
+                return true;
+            }
+            if ( depth == moves.length ) {
+                moves = Arrays.copyOf( moves, moves.length * 2 );
+            }
+            moves[ depth ] = MutableConfiguration.NO_MOVE;
+            expandInPlace( config, depth );
+
+            if ( this.checkpoint != null && --untilCheckpoint == 0 ) {
+                save( moves, depth, fingerprint, description );
+                untilCheckpoint = this.checkpointInterval;
+            }
+        }
+    }
+
+    /**
+     * Tell the listener that a configuration is about to be expanded.
+     *
+     * @param config The configuration
+     * @param depth  How many moves config is from the start
+     */
+    private void expandInPlace( Configuration config, int depth ) {
+        if ( this.listener != null ) {
+            this.listener.expanded( config, depth );
+        }
+    }
+
+    /**
+     * Something to tell whether a checkpoint belongs to a starting
+     * configuration.
+     *
+     * @param config The starting configuration
+     * @return Its key if it has one; otherwise 0, and any checkpoint is
+     *         trusted
+     */
+    private static long fingerprint( Configuration config ) {
+        return config.hasKey() ? config.getKey() : 0;
+    }
+
+    /**
+     * Load the checkpoint, if there is one, and reapply its moves.
+     *
+     * @param config      The starting configuration
+     * @param fingerprint The starting configuration's fingerprint
+     * @param description What the starting configuration's moves mean
+     * @return The moves being tried at each depth, with one more entry
+     *         than the number of moves applied to config (a fresh
+     *         search is just NO_MOVE)
+     */
+    private int[] resume( MutableConfiguration config, long fingerprint,
+                          String description ) {
+        int[] fresh = new int[]{ MutableConfiguration.NO_MOVE };
+        if ( this.checkpoint == null || !Files.exists( this.checkpoint ) ) {
+            return fresh;
+        }
+        int[] moves;
+        try ( DataInputStream in = new DataInputStream(
+                Files.newInputStream( this.checkpoint ) ) ) {
+            if ( in.readInt() != CHECKPOINT_MAGIC ) {
+                throw new IllegalStateException( this.checkpoint +
+                        " is not a checkpoint of this version" );
+            }
+            if ( in.readLong() != fingerprint ) {
+                throw new IllegalStateException( "checkpoint " +
+                        this.checkpoint + " is for a different problem" );
+            }
+            // the same problem searched another way has the same
+            // fingerprint, but its moves mean something else
+            String saved = in.readUTF();
+            if ( !saved.equals( description ) ) {
+                throw new IllegalStateException( "checkpoint " +
+                        this.checkpoint + " was searched as " + saved +
+                        ", not " + description );
+            }
+            moves = new int[ in.readInt() ];
+            for ( int i = 0; i < moves.length; ++i ) {
+                moves[ i ] = in.readInt();
+            }
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        for ( int i = 0; i < moves.length - 1; ++i ) {
+            config.apply( moves[ i ] );
+        }
+        return moves;
+    }
+
+    /**
+     * Write the moves being tried to the checkpoint file. It is written
+     * to a temporary file first and then moved over the old one, so a
+     * crash part way through leaves the old checkpoint.
+     *
+     * @param moves       The moves being tried at each depth
+     * @param depth       How many moves are applied
+     * @param fingerprint The starting configuration's fingerprint
+     * @param description What the starting configuration's moves mean
+     */
+    private void save( int[] moves, int depth, long fingerprint,
+                       String description ) {
+        Path temporary = this.checkpoint.resolveSibling(
+                this.checkpoint.getFileName() + ".tmp" );
+        try {
+            try ( DataOutputStream out = new DataOutputStream(
+                    Files.newOutputStream( temporary ) ) ) {
+                out.writeInt( CHECKPOINT_MAGIC );
+                out.writeLong( fingerprint );
+                out.writeUTF( description );
+                out.writeInt( depth + 1 );
+                for ( int i = 0; i <= depth; ++i ) {
+                    out.writeInt( moves[ i ] );
+                }
+            }
+            Files.move( temporary, this.checkpoint,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * One level of the explicit stack of solve.
+     */
+    private static class Frame {
+        /*
+         * The configuration at this level
+         */
+        private final Configuration config;
+
+        /*
+         * The successors of config not looked at yet
+         */
+        private final Iterator< Configuration > successors;
+
+        /**
+         * Make a frame.
+         *
+         * @param config     The configuration at this level
+         * @param successors The successors of config
+         */
+        private Frame( Configuration config,
+                       Iterator< Configuration > successors ) {
+            this.config = config;
+            this.successors = successors;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * A configuration which can be summed up by a 64-bit key. Two
+ * configurations with the same key are taken to have the same future:
+ * if one of them has no solution, neither does the other. This lets
+ * the Backtracker remember failed configurations in a
+ * TranspositionTable and skip them when they are reached again by
+ * another path.
+ *
+ * @author Kevin Becker
+ */
+public interface KeyedConfiguration extends Configuration {
+    /**
+     * Every KeyedConfiguration has a key.
+     *
+     * @return true
+     */
+    @Override
+    public default boolean hasKey() {
+        return true;
+    }
+
+    /**
+     * Get the key of this configuration. It must not change when
+     * getSuccessors is called.
+     *
+     * @return the configuration's key
+     */
+    @Override
+    public long getKey();
+}
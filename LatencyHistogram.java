@@ -0,0 +1,144 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how long something took, each time it was done, so that percentiles (like the median) can be read back out
+ * and not just the average. The times go into buckets: one for each time below 8 ns, then 8 buckets for each power of
+ * two after that, so a percentile is only off by at most an eighth of itself. There are a fixed number of buckets,
+ * however many times are counted.
+ *
+ * Times can be added from several threads at once.
+ *
+ * @author Kevin Becker
+ */
+public class LatencyHistogram
+{
+    /**
+     * How many buckets each power of two is split into (the log of it is SUB_BITS).
+     */
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+
+    /**
+     * Enough buckets for any time that fits in a long.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * How many times went into each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Counts one time.
+     *
+     * @param nanos How long it took, in nanoseconds (below 0 counts as 0).
+     */
+    public void record(long nanos)
+    {
+        counts.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    /**
+     * Getter for the number of times counted.
+     *
+     * @return How many times were recorded.
+     */
+    public long getCount()
+    {
+        long count = 0;
+        for(int i = 0; i < BUCKETS; ++i)
+            count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * Works out a percentile of the times.
+     *
+     * @param fraction Which percentile, as a fraction (0.5 for the median).
+     *
+     * @return The middle of the bucket the percentile is in, in nanoseconds, or -1 if no times have been counted.
+     */
+    public long getPercentile(double fraction)
+    {
+        long count = getCount();
+        if(count == 0)
+            return -1;
+
+        // the time at this rank (counting from 1) is the percentile
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        int last = 0;
+        for(int i = 0; i < BUCKETS; ++i)
+        {
+            long inBucket = counts.get(i);
+            if(inBucket == 0)
+                continue;
+            last = i;
+            seen += inBucket;
+            if(seen >= rank)
+                return middle(i);
+        }
+        // times counted while this was looking can leave the rank past the end
+        return middle(last);
+    }
+
+    /**
+     * Sets every count back to 0.
+     */
+    public void reset()
+    {
+        for(int i = 0; i < BUCKETS; ++i)
+            counts.set(i, 0);
+    }
+
+    /**
+     * Summarizes the times.
+     *
+     * @return The median and 90th percentile in microseconds and how many times there were, or "none".
+     */
+    @Override
+    public String toString()
+    {
+        long count = getCount();
+        if(count == 0)
+            return "none";
+        return String.format("p50 %.3f us, p90 %.3f us (%d)", getPercentile(0.5) / 1000.0,
+                getPercentile(0.9) / 1000.0, count);
+    }
+
+    /**
+     * Works out which bucket a time goes in.
+     *
+     * @param nanos The time, at least 0.
+     *
+     * @return The index of its bucket.
+     */
+    private static int bucket(long nanos)
+    {
+        if(nanos < SUB_BUCKETS)
+            return (int) nanos;
+
+        // the power of two, then which eighth of it, from the bits just below the top one
+        int power = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (power - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (power - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Works out the time in the middle of a bucket.
+     *
+     * @param bucket The index of the bucket.
+     *
+     * @return The time halfway between the smallest and biggest times that go in it, in nanoseconds.
+     */
+    private static long middle(int bucket)
+    {
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+
+        int power = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (power - SUB_BITS);
+        long smallest = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return smallest + width / 2;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * A configuration which can be searched in place. Instead of building a
+ * new configuration for every successor, the Backtracker asks for the
+ * next move, applies it to this one configuration, and undoes it again
+ * when it backtracks.
+ *
+ * Moves are plain ints whose meaning is up to the puzzle, so walking
+ * the tree does not need to create any objects.
+ *
+ * @author Kevin Becker
+ */
+public interface MutableConfiguration extends Configuration {
+    /**
+     * The move before the first move, and what is returned when there
+     * are no more moves.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Every MutableConfiguration can be searched in place.
+     *
+     * @return true
+     */
+    @Override
+    public default boolean isMutable() {
+        return true;
+    }
+
+    /**
+     * Describe what the moves of this configuration mean: everything
+     * which, if it were different, would make the same int a different
+     * move. Moves saved from one search are only applied again to a
+     * configuration with the same description.
+     *
+     * @return the description; by default empty, for moves which always
+     *         mean the same thing
+     */
+    public default String describeMoves() {
+        return "";
+    }
+
+    /**
+     * Get the move that comes after a given move from the current
+     * configuration.
+     *
+     * @param previous the last move looked at, or NO_MOVE to get the
+     *                 first one
+     * @return the next move, or NO_MOVE if there are no more
+     */
+    @Override
+    public int nextMove( int previous );
+
+    /**
+     * Change this configuration into its successor for a move.
+     *
+     * @param move a move returned by nextMove
+     */
+    @Override
+    public void apply( int move );
+
+    /**
+     * Change this configuration back to what it was before a move was
+     * applied. Moves are always undone in the opposite order they were
+     * applied in.
+     *
+     * @param move the move most recently applied
+     */
+    @Override
+    public void undo( int move );
+}
@@ -0,0 +1,86 @@
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how much heap each Trunk made by copying takes up: how many bytes one successor keeps alive, and how many
+ * are allocated making it. It goes a few levels down a problem, then keeps the successors of the Trunk there (every one
+ * of them, over and over) until it has enough, and measures the heap in use (after collecting the garbage) and the
+ * bytes the thread allocated around that. This is done for each grid type. The default problem is 26-cases.txt.
+ *
+ * Run with: java NodeHeapBenchmark [fileName [nodes]]
+ *
+ * @author Kevin Becker
+ */
+public class NodeHeapBenchmark
+{
+    /**
+     * How many levels down the Trunk whose successors are kept is.
+     */
+    private static final int DEPTH = 3;
+
+    /**
+     * How long to wait after asking for the garbage to be collected, in milliseconds.
+     */
+    private static final long SETTLE_MILLIS = 200;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The problem file (default 26-cases.txt) and how many successors to keep (default 200000).
+     *
+     * @throws FileNotFoundException if the problem file cannot be opened for reading
+     * @throws InterruptedException if the benchmark is interrupted while the garbage is being collected
+     */
+    public static void main(String[] args) throws FileNotFoundException, InterruptedException
+    {
+        TrunkProblem problem = TrunkProblem.read((args.length > 0) ? args[0] : "26-cases.txt");
+        int nodes = (args.length > 1) ? Integer.parseInt(args[1]) : 200_000;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for(Trunk.GridType gridType : Trunk.GridType.values())
+        {
+            // the first successor of each level, so every successor kept is the same size
+            Configuration parent = problem.toTrunk(gridType);
+            for(int depth = 0; depth < DEPTH && !parent.isGoal(); ++depth)
+                parent = parent.getSuccessors().iterator().next();
+
+            List<Configuration> kept = new ArrayList<>(nodes);
+            long usedBefore = usedHeap();
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            while(kept.size() < nodes)
+            {
+                for(Configuration successor : parent.getSuccessors())
+                {
+                    if(kept.size() < nodes)
+                        kept.add(successor);
+                }
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+            long retained = usedHeap() - usedBefore;
+
+            System.out.printf("%-8s %8.1f bytes retained, %8.1f bytes allocated per node (%d nodes)%n", gridType,
+                    (double) retained / kept.size(), (double) allocated / kept.size(), kept.size());
+        }
+    }
+
+    /**
+     * Collects the garbage and measures the heap left in use.
+     *
+     * @return The bytes of heap in use.
+     *
+     * @throws InterruptedException if the wait for the collection is interrupted
+     */
+    private static long usedHeap() throws InterruptedException
+    {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(SETTLE_MILLIS);
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
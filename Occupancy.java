@@ -0,0 +1,93 @@
+/**
+ * The Occupancy is the part of a Trunk which remembers which cells are already taken up by a Suitcase. Trunk only
+ * ever asks it two questions (does a suitcase fit here, and put a suitcase here) so the way the cells are stored can
+ * be swapped out without the search knowing about it.
+ *
+ * @author Kevin Becker
+ */
+public interface Occupancy
+{
+    /**
+     * Determines if a suitcase can be fit in starting at startRow and startCol.
+     *
+     * @param startRow The starting row to check for fit.
+     * @param startCol The starting col to check for fit.
+     * @param suitcase The suitcase we are checking for fit.
+     *
+     * @return True if the case can fit; false otherwise.
+     */
+    public boolean open(int startRow, int startCol, Suitcase suitcase);
+
+    /**
+     * Finds the first position at or after a cell (going across the rows) where a suitcase can be fit in. Positions
+     * where the suitcase would hang off of the Trunk are never looked at.
+     *
+     * @param fromCell The index (row * length + col) of the first position to look at.
+     * @param suitcase The suitcase we are looking to fit.
+     *
+     * @return The index of the first position where the case fits, or -1 if there isn't one.
+     */
+    public int nextOpen(int fromCell, Suitcase suitcase);
+
+    /**
+     * Is a single cell empty?
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     *
+     * @return True if no suitcase covers the cell; false otherwise.
+     */
+    public boolean isEmpty(int row, int col);
+
+    /**
+     * Fills the spaces that a suitcase takes up starting at a certain row and column.
+     *
+     * @param startRow The row to begin filling at.
+     * @param startCol The column to begin filling at.
+     * @param which The suitcase we are "placing".
+     */
+    public void fill(int startRow, int startCol, Suitcase which);
+
+    /**
+     * Empties the spaces that a suitcase took up, undoing the most recent fill.
+     *
+     * @param startRow The row the suitcase was filled at.
+     * @param startCol The column the suitcase was filled at.
+     * @param which The suitcase we are taking back out.
+     */
+    public void clear(int startRow, int startCol, Suitcase which);
+
+    /**
+     * Makes an independent copy of this Occupancy, so that filling the copy doesn't change this one.
+     *
+     * @return A new Occupancy with the same cells taken up.
+     */
+    public Occupancy copy();
+
+    /**
+     * Finds where each suitcase is, for reading a packing back out.
+     *
+     * @return The most recent Placement of a chain with one for each suitcase (in the orientation it went in), or
+     *         null if there are none.
+     */
+    public Placement placements();
+
+    /**
+     * Adds the occupancy to a buffer the way a Trunk is displayed: each cell's suitcase name (or something else for an
+     * empty cell) and a space, with a line separator after each row. Unlike placements() it doesn't make anything, so
+     * it can be done for every Trunk in a trace.
+     *
+     * @param out The buffer to add to.
+     * @param empty What to show for an empty cell.
+     */
+    public void appendGrid(StringBuilder out, char empty);
+
+    /**
+     * Adds where each suitcase is to a buffer, in the order of their top left corners going across the rows: its
+     * name, '@', the row and column of the corner, ':', and its length and width the way around it went in, then a
+     * space (e.g. "A@0,3:2x1 "). Like appendGrid() it doesn't make anything.
+     *
+     * @param out The buffer to add to.
+     */
+    public void appendPlacements(StringBuilder out);
+}
@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A backtracker which searches the successors of a configuration on
+ * several threads at once. Successors are handed out as fork/join tasks
+ * while there are idle threads to steal them, and searched with plain
+ * recursion otherwise. As soon as any branch finds a goal every other
+ * branch stops.
+ *
+ * Successors of a configuration are searched on different threads, so
+ * a configuration must not share anything mutable with its siblings.
+ *
+ * @author Kevin Becker
+ */
+public class ParallelBacktracker {
+    /**
+     * Successors are only forked off while fewer than this many tasks
+     * are queued up beyond what the other threads are stealing.
+     */
+    private static final int SURPLUS_TASKS = 2;
+
+    /*
+     * How many threads to search with
+     */
+    private final int parallelism;
+
+    /**
+     * Initialize a new parallel backtracker
+     *
+     * @param parallelism How many threads to search with
+     */
+    public ParallelBacktracker( int parallelism ) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Try find a solution, if one exists, for a given configuration.
+     * When there is more than one solution, which one is found depends
+     * on how the threads are scheduled.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or empty if no solution
+     */
+    public Optional< Configuration > solve( Configuration config ) {
+        AtomicReference< Configuration > solution = new AtomicReference<>();
+        ForkJoinPool pool = new ForkJoinPool( this.parallelism );
+        try {
+            pool.invoke( new SearchTask( config, solution ) );
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return Optional.ofNullable( solution.get() );
+    }
+
+    /**
+     * The search below one configuration, as a fork/join task.
+     */
+    @SuppressWarnings( "serial" )
+    private static class SearchTask extends RecursiveAction {
+        /*
+         * The configuration to search below
+         */
+        private final Configuration config;
+
+        /*
+         * Where the first solution found by any task goes
+         */
+        private final AtomicReference< Configuration > solution;
+
+        /**
+         * Make a task to search below a configuration.
+         *
+         * @param config   The configuration to search below
+         * @param solution Where the first solution found goes
+         */
+        private SearchTask( Configuration config,
+                            AtomicReference< Configuration > solution ) {
+            this.config = config;
+            this.solution = solution;
+        }
+
+        /**
+         * Search below the configuration, forking successors off as
+         * tasks while other threads are looking for work.
+         */
+        @Override
+        protected void compute() {
+            if ( this.solution.get() != null ) {
+                return;
+            }
+            if ( this.config.isGoal() ) {
+                this.solution.compareAndSet( null, this.config );
+                return;
+            }
+            List< SearchTask > forked = new ArrayList<>();
+            for ( Configuration child : this.config.getSuccessors() ) {
+                if ( this.solution.get() != null ) {
+                    break;
+                }
+                if ( child.isValid() ) {
+                    if ( getSurplusQueuedTaskCount() < SURPLUS_TASKS ) {
+                        SearchTask task = new SearchTask( child, this.solution );
+                        task.fork();
+                        forked.add( task );
+                    }
+                    else if ( search( child ) ) {
+                        break;
+                    }
+                }
+            }
+            for ( SearchTask task : forked ) {
+                // tasks nobody has started yet are not worth starting
+                if ( this.solution.get() != null ) {
+                    task.cancel( false );
+                }
+                else {
+                    task.join();
+                }
+            }
+        }
+
+        /**
+         * The same search as Backtracker.solve, on this thread only,
+         * giving up as soon as any task has found a solution.
+         *
+         * @param current The configuration to search below
+         * @return true if a solution has been found (here or elsewhere)
+         */
+        private boolean search( Configuration current ) {
+            if ( this.solution.get() != null ) {
+                return true;
+            }
+            if ( current.isGoal() ) {
+                this.solution.compareAndSet( null, current );
+                return true;
+            }
+            for ( Configuration child : current.getSuccessors() ) {
+                if ( child.isValid() && search( child ) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.io.FileNotFoundException;
+import java.util.Optional;
+
+/**
+ * Times the serial Backtracker against the ParallelBacktracker on one problem file, with 1, 2, 4, ... threads up to
+ * the number of processors, and prints the speedup of each.
+ *
+ * Run with: java ParallelBenchmark [fileName [repetitions]]
+ *
+ * @author Kevin Becker
+ */
+public class ParallelBenchmark
+{
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The problem file (default 11-14-full.txt) and how many times to time each solver (default 5); the
+     *             fastest time is used.
+     *
+     * @throws FileNotFoundException if the problem file cannot be opened for reading
+     */
+    public static void main(String[] args) throws FileNotFoundException
+    {
+        TrunkProblem problem = TrunkProblem.read((args.length > 0) ? args[0] : "11-14-full.txt");
+        int repetitions = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        Backtracker serial = new Backtracker(false);
+        long serialTime = Long.MAX_VALUE;
+        boolean solved = false;
+        for(int i = 0; i < repetitions; ++i)
+        {
+            long begin = System.nanoTime();
+            solved = serial.solve(problem.toTrunk(Trunk.GridType.CHARS)).isPresent();
+            serialTime = Math.min(serialTime, System.nanoTime() - begin);
+        }
+        System.out.printf("serial      %10.3f ms  %s%n", serialTime / NANOS_PER_MILLI, solved ? "YES" : "NO");
+
+        // doubles the threads each time, and always finishes with all of the processors
+        for(int threads = 1; ; threads = Math.min(threads * 2, processors))
+        {
+            ParallelBacktracker parallel = new ParallelBacktracker(threads);
+            long parallelTime = Long.MAX_VALUE;
+            for(int i = 0; i < repetitions; ++i)
+            {
+                long begin = System.nanoTime();
+                Optional<Configuration> solution = parallel.solve(problem.toTrunk(Trunk.GridType.CHARS));
+                parallelTime = Math.min(parallelTime, System.nanoTime() - begin);
+                if(solution.isPresent() != solved)
+                    throw new IllegalStateException("parallel and serial solvers disagree");
+            }
+            System.out.printf("%2d threads  %10.3f ms  speedup %.2fx%n", threads, parallelTime / NANOS_PER_MILLI,
+                    (double) serialTime / parallelTime);
+
+            if(threads == processors)
+                break;
+        }
+    }
+}
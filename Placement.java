@@ -0,0 +1,85 @@
+/**
+ * A single Suitcase put down at a row and column of a Trunk. Placements are chained to the one placed before them,
+ * so a whole packing is just its most recent Placement, and a copied Trunk can share every earlier Placement with
+ * the Trunk it was copied from.
+ *
+ * @author Kevin Becker
+ */
+public class Placement
+{
+    /**
+     * The row of the top left corner of the Suitcase.
+     */
+    private final int row;
+
+    /**
+     * The column of the top left corner of the Suitcase.
+     */
+    private final int col;
+
+    /**
+     * The Suitcase (in the orientation it was placed in).
+     */
+    private final Suitcase suitcase;
+
+    /**
+     * The Placement made before this one, or null if this was the first.
+     */
+    private final Placement previous;
+
+    /**
+     * Makes a new Placement.
+     *
+     * @param row The row of the top left corner of the Suitcase.
+     * @param col The column of the top left corner of the Suitcase.
+     * @param suitcase The Suitcase that was placed.
+     * @param previous The Placement made before this one, or null if this is the first.
+     */
+    Placement(int row, int col, Suitcase suitcase, Placement previous)
+    {
+        this.row = row;
+        this.col = col;
+        this.suitcase = suitcase;
+        this.previous = previous;
+    }
+
+    /**
+     * Getter for the row.
+     *
+     * @return The row of the top left corner of the Suitcase.
+     */
+    public int getRow()
+    {
+        return this.row;
+    }
+
+    /**
+     * Getter for the column.
+     *
+     * @return The column of the top left corner of the Suitcase.
+     */
+    public int getCol()
+    {
+        return this.col;
+    }
+
+    /**
+     * Getter for the Suitcase.
+     *
+     * @return The Suitcase, in the orientation it was placed in.
+     */
+    public Suitcase getSuitcase()
+    {
+        return this.suitcase;
+    }
+
+    /**
+     * Getter for the previous Placement.
+     *
+     * @return The Placement made before this one, or null if this was the first.
+     */
+    public Placement getPrevious()
+    {
+        return this.previous;
+    }
+}
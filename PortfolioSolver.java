@@ -0,0 +1,197 @@
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Races several orders of the suitcases against each other. Which order finishes first differs a lot from problem to
+ * problem, so each strategy searches its own Trunk, sorted its own way, on its own thread. The first one to finish
+ * (with a solution or with no solution, since every strategy searches everything) wins, and the rest stop at the next
+ * Trunk they look at.
+ *
+ * Each strategy searches with a Backtracker shared from the caller's, so the caller's listener, transposition table and
+ * trace see every strategy's search, and the pruning counts of every strategy go into the options' counts.
+ *
+ * Which strategy won is remembered, for the last problem and as a count over every problem, so the default order can
+ * be picked to suit the problems being solved. A PortfolioSolver can be shared by several threads.
+ *
+ * @author Kevin Becker
+ */
+public class PortfolioSolver
+{
+    /**
+     * How the Trunks are stored and searched (other than their order).
+     */
+    private final TrunkOptions options;
+
+    /**
+     * The order of each strategy, by name, in the order they were added.
+     */
+    private final Map<String, Comparator<Suitcase>> strategies = new LinkedHashMap<>();
+
+    /**
+     * How many times each strategy has won.
+     */
+    private final Map<String, LongAdder> wins = new ConcurrentHashMap<>();
+
+    /**
+     * The strategy which won the last race (null before any).
+     */
+    private volatile String winner = null;
+
+    /**
+     * Makes a new PortfolioSolver with no strategies.
+     *
+     * @param options How the Trunks are stored and searched; the order in them is replaced by each strategy's, and
+     *                what the strategies prune is counted in their pruning counts.
+     */
+    public PortfolioSolver(TrunkOptions options)
+    {
+        this.options = options;
+    }
+
+    /**
+     * Adds a strategy.
+     *
+     * @param name The name it is reported by.
+     * @param order The order it tries the suitcases in.
+     *
+     * @return This PortfolioSolver.
+     */
+    public PortfolioSolver addStrategy(String name, Comparator<Suitcase> order)
+    {
+        strategies.put(name, order);
+        wins.putIfAbsent(name, new LongAdder());
+        return this;
+    }
+
+    /**
+     * Adds a strategy for each of the SuitcaseOrders.
+     *
+     * @return This PortfolioSolver.
+     */
+    public PortfolioSolver addStandardStrategies()
+    {
+        for(SuitcaseOrder order : SuitcaseOrder.values())
+            addStrategy(order.name().toLowerCase(), order);
+        return this;
+    }
+
+    /**
+     * Solves a problem by racing every strategy.
+     *
+     * @param problem The problem to solve.
+     * @param backtracker The Backtracker whose listener, transposition table and trace every strategy searches with.
+     *
+     * @return The winner's solved Trunk, or empty if there is no solution.
+     *
+     * @throws IllegalStateException if there are no strategies, or a strategy's search failed
+     */
+    public Optional<Configuration> solve(TrunkProblem problem, Backtracker backtracker)
+    {
+        if(strategies.isEmpty())
+            throw new IllegalStateException("No strategies to race");
+
+        AtomicBoolean finished = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(strategies.size());
+        ExecutorCompletionService<Optional<Configuration>> race = new ExecutorCompletionService<>(pool);
+        Map<Future<Optional<Configuration>>, String> names = new HashMap<>();
+        try
+        {
+            for(Map.Entry<String, Comparator<Suitcase>> strategy : strategies.entrySet())
+            {
+                Trunk trunk = problem.toTrunk(options.copy().setOrder(strategy.getValue()));
+                Backtracker racer = backtracker.share();
+                racer.setCancellation(finished::get);
+                names.put(race.submit(() -> racer.solveInPlace(trunk)), strategy.getKey());
+            }
+
+            // the first to finish is the winner; the others are only told to stop
+            Future<Optional<Configuration>> first = race.take();
+            finished.set(true);
+            Optional<Configuration> solution = first.get();
+
+            winner = names.get(first);
+            wins.get(winner).increment();
+            return solution;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while racing", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("A strategy failed", e.getCause());
+        }
+        finally
+        {
+            // the others stop at their next Trunk; waiting for them keeps them out of what the caller counts next
+            finished.set(true);
+            pool.shutdown();
+            awaitStrategies(pool);
+        }
+    }
+
+    /**
+     * Waits for every strategy to stop.
+     *
+     * @param pool The threads the strategies are on, shut down.
+     */
+    private static void awaitStrategies(ExecutorService pool)
+    {
+        try
+        {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch(InterruptedException e)
+        {
+            // they will still stop soon, just not waited for
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Getter for the winner of the last race.
+     *
+     * @return The name of the strategy which finished first on the last problem, or null if none has been solved.
+     */
+    public String getWinner()
+    {
+        return winner;
+    }
+
+    /**
+     * Getter for how many times each strategy has won.
+     *
+     * @return The number of wins of each strategy, by name, in the order they were added.
+     */
+    public Map<String, Long> getWins()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(String name : strategies.keySet())
+            counts.put(name, wins.get(name).sum());
+        return counts;
+    }
+
+    /**
+     * Summarizes the wins.
+     *
+     * @return The last winner and the number of wins of each strategy.
+     */
+    @Override
+    public String toString()
+    {
+        return "last won by " + winner + ", wins " + getWins();
+    }
+}
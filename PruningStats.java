@@ -0,0 +1,162 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each of the Trunk's pruning rules was checked and how many Trunks it cut off. The counts can be
+ * added to from several threads at once.
+ *
+ * @author Kevin Becker
+ */
+public class PruningStats
+{
+    /**
+     * How many Trunks had their free area checked.
+     */
+    private final LongAdder areaChecks = new LongAdder();
+
+    /**
+     * How many Trunks were cut off because there wasn't enough free area.
+     */
+    private final LongAdder areaPrunes = new LongAdder();
+
+    /**
+     * How many Trunks had their empty regions checked.
+     */
+    private final LongAdder regionChecks = new LongAdder();
+
+    /**
+     * How many Trunks were cut off because of empty regions no suitcase fits in.
+     */
+    private final LongAdder regionPrunes = new LongAdder();
+
+    /**
+     * How many Trunks had the free space index checked for suitcases that fit nowhere.
+     */
+    private final LongAdder fitChecks = new LongAdder();
+
+    /**
+     * How many Trunks were cut off because a suitcase left fit nowhere.
+     */
+    private final LongAdder fitPrunes = new LongAdder();
+
+    /**
+     * Counts one check of the free area.
+     *
+     * @param pruned True if the Trunk was cut off.
+     */
+    void countArea(boolean pruned)
+    {
+        areaChecks.increment();
+        if(pruned)
+            areaPrunes.increment();
+    }
+
+    /**
+     * Counts one check of the empty regions.
+     *
+     * @param pruned True if the Trunk was cut off.
+     */
+    void countRegion(boolean pruned)
+    {
+        regionChecks.increment();
+        if(pruned)
+            regionPrunes.increment();
+    }
+
+    /**
+     * Counts one check for suitcases that fit nowhere.
+     *
+     * @param pruned True if the Trunk was cut off.
+     */
+    void countFit(boolean pruned)
+    {
+        fitChecks.increment();
+        if(pruned)
+            fitPrunes.increment();
+    }
+
+    /**
+     * Getter for the number of free area checks.
+     *
+     * @return How many Trunks had their free area checked.
+     */
+    public long getAreaChecks()
+    {
+        return areaChecks.sum();
+    }
+
+    /**
+     * Getter for the number of Trunks the free area rule cut off.
+     *
+     * @return How many Trunks were cut off because there wasn't enough free area.
+     */
+    public long getAreaPrunes()
+    {
+        return areaPrunes.sum();
+    }
+
+    /**
+     * Getter for the number of empty region checks.
+     *
+     * @return How many Trunks had their empty regions checked.
+     */
+    public long getRegionChecks()
+    {
+        return regionChecks.sum();
+    }
+
+    /**
+     * Getter for the number of Trunks the empty region rule cut off.
+     *
+     * @return How many Trunks were cut off because of empty regions no suitcase fits in.
+     */
+    public long getRegionPrunes()
+    {
+        return regionPrunes.sum();
+    }
+
+    /**
+     * Getter for the number of checks for suitcases that fit nowhere.
+     *
+     * @return How many Trunks had the free space index checked.
+     */
+    public long getFitChecks()
+    {
+        return fitChecks.sum();
+    }
+
+    /**
+     * Getter for the number of Trunks cut off because a suitcase fit nowhere.
+     *
+     * @return How many Trunks were cut off because a suitcase left fit in none of the empty rectangles.
+     */
+    public long getFitPrunes()
+    {
+        return fitPrunes.sum();
+    }
+
+    /**
+     * Sets every count back to 0.
+     */
+    public void reset()
+    {
+        areaChecks.reset();
+        areaPrunes.reset();
+        regionChecks.reset();
+        regionPrunes.reset();
+        fitChecks.reset();
+        fitPrunes.reset();
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return The prunes and checks of each rule.
+     */
+    @Override
+    public String toString()
+    {
+        return "area pruned " + getAreaPrunes() + " of " + getAreaChecks() +
+                ", dead region pruned " + getRegionPrunes() + " of " + getRegionChecks() +
+                ", no fit pruned " + getFitPrunes() + " of " + getFitChecks();
+    }
+}
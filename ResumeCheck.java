@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Checks that an IterativeBacktracker search which is stopped part of the way through and resumed from its checkpoint
+ * gets the same answer as a search which is never stopped, for every kind of branching. Each problem is a seeded
+ * random one from Tests, about half of them with the last suitcase taken out so that some have solutions. Each search
+ * is checkpointed every few expansions and stopped at a random point, and a fresh Trunk of the same problem is resumed
+ * from the checkpoint. Each checkpoint is also checked to be refused by searches with the other kinds of branching.
+ *
+ * Prints each mismatch or failure, then a line for each kind of branching, and exits with 1 if anything went wrong.
+ *
+ * Run with: java ResumeCheck [problems [seed]]
+ *
+ * @author Kevin Becker
+ */
+public class ResumeCheck
+{
+    /**
+     * How many problems are checked when no number is given.
+     */
+    private static final int DEFAULT_PROBLEMS = 100;
+
+    /**
+     * The largest length and width of the random problems.
+     */
+    private static final int DIMENSION = 9;
+
+    /**
+     * How many expansions there are between checkpoints.
+     */
+    private static final long INTERVAL = 3;
+
+    /**
+     * Runs the check.
+     *
+     * @param args How many problems to check, and the seed to make them from.
+     *
+     * @throws IOException if the checkpoint file can't be made or deleted
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int problems = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PROBLEMS;
+        Random random = (args.length > 1) ? new Random(Long.parseLong(args[1])) : new Random();
+        Path checkpoint = Files.createTempFile("resume", ".checkpoint");
+        boolean failed = false;
+        try
+        {
+            for(Trunk.Branching branching : Trunk.Branching.values())
+            {
+                int resumed = 0;
+                int wrong = 0;
+                for(int i = 0; i < problems; ++i)
+                {
+                    TrunkProblem problem = problem(random, i % 2 == 1);
+                    TrunkOptions options = new TrunkOptions().setBranching(branching);
+                    SearchMetrics metrics = new SearchMetrics();
+                    Backtracker backtracker = new Backtracker(false);
+                    backtracker.setSearchListener(metrics);
+                    boolean expected = backtracker.solveInPlace(problem.toTrunk(options)).isPresent();
+
+                    // stops somewhere in the search, if it is long enough to have a checkpoint
+                    int stopAfter = 1 + random.nextInt((int) Math.max(1, metrics.getExpanded()));
+                    Files.deleteIfExists(checkpoint);
+                    String error = check(problem, options, checkpoint, stopAfter, expected);
+                    if(error == null && Files.exists(checkpoint))
+                        error = checkOptions(problem, branching, checkpoint);
+                    if(error != null)
+                    {
+                        ++wrong;
+                        System.out.println(branching + " " + describe(problem) + ": " + error);
+                    }
+                    else if(Files.exists(checkpoint))
+                        ++resumed;
+                }
+                System.out.println(branching + ": " + wrong + " wrong of " + problems + " (" + resumed +
+                        " stopped after a checkpoint)");
+                failed |= wrong > 0;
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(checkpoint);
+            Files.deleteIfExists(checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp"));
+        }
+        if(failed)
+            System.exit(1);
+    }
+
+    /**
+     * Makes a random problem. Tests makes ones with more suitcases than fit, so for one that might have a solution the
+     * last suitcase is taken out.
+     *
+     * @param random Where the problem comes from.
+     * @param fitting True to take the last suitcase out.
+     *
+     * @return The problem.
+     */
+    private static TrunkProblem problem(Random random, boolean fitting)
+    {
+        TrunkProblem problem = Tests.randomProblem(random, DIMENSION);
+        if(!fitting || problem.getCases().size() < 2)
+            return problem;
+
+        List<Suitcase> cases = new ArrayList<>(problem.getCases());
+        cases.remove(cases.size() - 1);
+        return new TrunkProblem(problem.getLength(), problem.getWidth(), cases);
+    }
+
+    /**
+     * Searches a problem until it is stopped, then resumes it on a fresh Trunk and compares the answer. The checkpoint
+     * file is left as it was when the search stopped, or not there if the search finished before it was stopped.
+     *
+     * @param problem The problem.
+     * @param options How the Trunks are stored and searched.
+     * @param checkpoint The checkpoint file, not there yet.
+     * @param stopAfter How many expansions to stop after.
+     * @param expected True if the problem has a solution.
+     *
+     * @return What went wrong, or null if nothing did.
+     *
+     * @throws IOException if the checkpoint can't be copied
+     */
+    private static String check(TrunkProblem problem, TrunkOptions options, Path checkpoint, int stopAfter,
+            boolean expected) throws IOException
+    {
+        IterativeBacktracker first = new IterativeBacktracker();
+        first.setCheckpoint(checkpoint, INTERVAL);
+        first.setSearchListener(new Stopper(stopAfter));
+        try
+        {
+            Optional<Configuration> answer = first.solveInPlace(problem.toTrunk(options));
+            return (answer.isPresent() == expected) ? null : "unstopped search said " + answer.isPresent();
+        }
+        catch(Stopper.Stop e)
+        {
+            // stopped before it finished, as most are
+        }
+        if(!Files.exists(checkpoint))
+            return null;
+
+        // resuming deletes the checkpoint, and it is still wanted to check the options with
+        Path saved = Files.createTempFile("resume", ".saved");
+        try
+        {
+            Files.copy(checkpoint, saved, StandardCopyOption.REPLACE_EXISTING);
+            IterativeBacktracker second = new IterativeBacktracker();
+            second.setCheckpoint(checkpoint, INTERVAL);
+            Trunk trunk = problem.toTrunk(options);
+            Optional<Configuration> answer = second.solveInPlace(trunk);
+            if(answer.isPresent() != expected)
+                return "resumed search said " + answer.isPresent() + ", not " + expected;
+            if(answer.isPresent() && !(trunk.isGoal() && trunk.isValid()))
+                return "resumed search's solution isn't one";
+            Files.copy(saved, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+            return null;
+        }
+        catch(RuntimeException e)
+        {
+            return "resumed search threw " + e;
+        }
+        finally
+        {
+            Files.deleteIfExists(saved);
+        }
+    }
+
+    /**
+     * Resumes a checkpoint with every other kind of branching, each of which should refuse it.
+     *
+     * @param problem The problem.
+     * @param branching The branching the checkpoint was made with.
+     * @param checkpoint The checkpoint file.
+     *
+     * @return What went wrong, or null if nothing did.
+     */
+    private static String checkOptions(TrunkProblem problem, Trunk.Branching branching, Path checkpoint)
+    {
+        for(Trunk.Branching other : Trunk.Branching.values())
+        {
+            if(other == branching)
+                continue;
+
+            IterativeBacktracker resumer = new IterativeBacktracker();
+            resumer.setCheckpoint(checkpoint, INTERVAL);
+            try
+            {
+                resumer.solveInPlace(problem.toTrunk(new TrunkOptions().setBranching(other)));
+                return "checkpoint was resumed with " + other;
+            }
+            catch(IllegalStateException e)
+            {
+                // refused, as it should be
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Describes a problem on one line.
+     *
+     * @param problem The problem.
+     *
+     * @return The size of the Trunk and of each suitcase.
+     */
+    private static String describe(TrunkProblem problem)
+    {
+        StringBuilder text = new StringBuilder();
+        text.append(problem.getLength()).append('x').append(problem.getWidth()).append(':');
+        for(Suitcase suitcase : problem.getCases())
+            text.append(' ').append(suitcase.getLength()).append('x').append(suitcase.getWidth());
+        return text.toString();
+    }
+
+    /**
+     * Stops a search by throwing once it has expanded enough Configurations.
+     */
+    private static class Stopper implements SearchListener
+    {
+        /**
+         * Thrown to stop the search.
+         */
+        @SuppressWarnings("serial")
+        private static class Stop extends RuntimeException
+        {
+            /**
+             * Makes a Stop, without the stack trace nobody looks at.
+             */
+            private Stop()
+            {
+                super(null, null, false, false);
+            }
+        }
+
+        /**
+         * How many more expansions before the search is stopped.
+         */
+        private int left;
+
+        /**
+         * Makes a Stopper.
+         *
+         * @param stopAfter How many expansions to stop after.
+         */
+        private Stopper(int stopAfter)
+        {
+            this.left = stopAfter;
+        }
+
+        /**
+         * Counts an expansion, and stops the search if it is the last one.
+         *
+         * @param config The Configuration.
+         * @param depth How many moves config is from the start.
+         */
+        @Override
+        public void expanded(Configuration config, int depth)
+        {
+            if(--left == 0)
+                throw new Stop();
+        }
+    }
+}
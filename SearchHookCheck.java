@@ -0,0 +1,510 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Checks the search hooks of Configuration that Trunk doesn't use, on two small puzzles which do.
+ *
+ * getBound: seeded random 0/1 knapsacks (take or leave each item, without going over the capacity) are solved with
+ * Backtracker.solveBest, whose best value has to match the best found by trying every set of items.
+ *
+ * estimateBranching: N queens (one queen per row, none attacking another) are solved with and without the queens
+ * estimating how many places the next one has, both in place and by copying. Every solution has to be one, and each
+ * way has to find one for the same boards; the nodes expanded each way are printed so they can be compared.
+ *
+ * Prints each mismatch, then a line for each hook, and exits with 1 if anything went wrong.
+ *
+ * Run with: java SearchHookCheck [knapsacks [seed]]
+ *
+ * @author Kevin Becker
+ */
+public class SearchHookCheck
+{
+    /**
+     * How many knapsacks are checked when no number is given.
+     */
+    private static final int DEFAULT_KNAPSACKS = 200;
+
+    /**
+     * The most items in a knapsack (every set of them is tried, so this has to stay small).
+     */
+    private static final int MAX_ITEMS = 14;
+
+    /**
+     * The sizes of board the queens are checked on.
+     */
+    private static final int SMALLEST_BOARD = 4;
+    private static final int LARGEST_BOARD = 24;
+
+    /**
+     * Runs the check.
+     *
+     * @param args How many knapsacks to check, and the seed to make them from.
+     */
+    public static void main(String[] args)
+    {
+        int knapsacks = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_KNAPSACKS;
+        Random random = (args.length > 1) ? new Random(Long.parseLong(args[1])) : new Random();
+        boolean failed = checkBound(knapsacks, random);
+        failed |= checkEstimates();
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Solves random knapsacks with solveBest and checks them against trying every set of items.
+     *
+     * @param knapsacks How many knapsacks to check.
+     * @param random Where the knapsacks come from.
+     *
+     * @return True if any of them was wrong.
+     */
+    private static boolean checkBound(int knapsacks, Random random)
+    {
+        int wrong = 0;
+        long expanded = 0;
+        long sets = 0;
+        for(int i = 0; i < knapsacks; ++i)
+        {
+            int items = 1 + random.nextInt(MAX_ITEMS);
+            int[] weights = new int[items];
+            int[] values = new int[items];
+            int total = 0;
+            for(int j = 0; j < items; ++j)
+            {
+                weights[j] = 1 + random.nextInt(10);
+                values[j] = 1 + random.nextInt(60);
+                total += weights[j];
+            }
+            int capacity = random.nextInt(total + 1);
+
+            SearchMetrics metrics = new SearchMetrics();
+            Backtracker backtracker = new Backtracker(false);
+            backtracker.setSearchListener(metrics);
+            Optional<Configuration> best = backtracker.solveBest(new Knapsack(weights, values, capacity));
+            long found = best.map(Configuration::getBound).orElse(-1L);
+            long expected = bruteForce(weights, values, capacity);
+            if(found != expected)
+            {
+                ++wrong;
+                System.out.println("knapsack " + i + " (" + items + " items, capacity " + capacity + "): best " +
+                        found + ", expected " + expected);
+            }
+            expanded += metrics.getExpanded();
+            sets += 1L << items;
+        }
+        System.out.println("getBound: " + wrong + " wrong of " + knapsacks + " knapsacks (" + expanded +
+                " nodes expanded, " + sets + " sets of items)");
+        return wrong > 0;
+    }
+
+    /**
+     * Finds the best knapsack by trying every set of items.
+     *
+     * @param weights The weight of each item.
+     * @param values The value of each item.
+     * @param capacity The most weight that can be taken.
+     *
+     * @return The most value that can be taken.
+     */
+    private static long bruteForce(int[] weights, int[] values, int capacity)
+    {
+        long best = 0;
+        for(int set = 0; set < 1 << weights.length; ++set)
+        {
+            int weight = 0;
+            long value = 0;
+            for(int j = 0; j < weights.length; ++j)
+            {
+                if((set >> j & 1) == 1)
+                {
+                    weight += weights[j];
+                    value += values[j];
+                }
+            }
+            if(weight <= capacity)
+                best = Math.max(best, value);
+        }
+        return best;
+    }
+
+    /**
+     * Solves N queens on each size of board with and without estimates, in place and by copying, and checks that
+     * every answer agrees and every solution is one.
+     *
+     * @return True if anything was wrong.
+     */
+    private static boolean checkEstimates()
+    {
+        int wrong = 0;
+        long[] expanded = new long[4];
+        for(int n = SMALLEST_BOARD; n <= LARGEST_BOARD; ++n)
+        {
+            Boolean solvable = null;
+            for(int way = 0; way < 4; ++way)
+            {
+                boolean estimating = way % 2 == 1;
+                boolean inPlace = way >= 2;
+                SearchMetrics metrics = new SearchMetrics();
+                Backtracker backtracker = new Backtracker(false);
+                backtracker.setSearchListener(metrics);
+                Queens start = new Queens(n, estimating);
+                Optional<Configuration> solution = inPlace ? backtracker.solveInPlace(start) :
+                        backtracker.solve(start);
+                expanded[way] += metrics.getExpanded();
+
+                String described = (inPlace ? "in place" : "copying") + (estimating ? " with estimates" : "");
+                if(solution.isPresent() && !((Queens) solution.get()).isSolution())
+                {
+                    ++wrong;
+                    System.out.println(n + " queens " + described + ": not a solution: " + solution.get());
+                }
+                if(solvable == null)
+                    solvable = solution.isPresent();
+                else if(solvable != solution.isPresent())
+                {
+                    ++wrong;
+                    System.out.println(n + " queens " + described + ": " + (solvable ? "no solution" : "a solution"));
+                }
+            }
+        }
+        System.out.println("estimateBranching: " + wrong + " wrong on " + SMALLEST_BOARD + " to " + LARGEST_BOARD +
+                " queens; nodes expanded copying " + expanded[0] + ", with estimates " + expanded[1] +
+                "; in place " + expanded[2] + ", with estimates " + expanded[3]);
+        return wrong > 0;
+    }
+
+    /**
+     * A 0/1 knapsack with the items decided on in order. Its bound is the value taken so far plus the value of each
+     * item still to decide on which would fit by itself, and a goal's value is its bound.
+     */
+    private static class Knapsack implements Configuration
+    {
+        /**
+         * The weight and value of each item, and the most weight that can be taken; shared by every Knapsack made
+         * from the same first one.
+         */
+        private final int[] weights;
+        private final int[] values;
+        private final int capacity;
+
+        /**
+         * The next item to decide on.
+         */
+        private final int next;
+
+        /**
+         * The weight and value of the items taken so far.
+         */
+        private final int weight;
+        private final long value;
+
+        /**
+         * Makes an empty knapsack, with nothing decided on yet.
+         *
+         * @param weights The weight of each item.
+         * @param values The value of each item.
+         * @param capacity The most weight that can be taken.
+         */
+        private Knapsack(int[] weights, int[] values, int capacity)
+        {
+            this(weights, values, capacity, 0, 0, 0);
+        }
+
+        /**
+         * Makes a knapsack part of the way through deciding.
+         *
+         * @param weights The weight of each item.
+         * @param values The value of each item.
+         * @param capacity The most weight that can be taken.
+         * @param next The next item to decide on.
+         * @param weight The weight of the items taken so far.
+         * @param value The value of the items taken so far.
+         */
+        private Knapsack(int[] weights, int[] values, int capacity, int next, int weight, long value)
+        {
+            this.weights = weights;
+            this.values = values;
+            this.capacity = capacity;
+            this.next = next;
+            this.weight = weight;
+            this.value = value;
+        }
+
+        /**
+         * Takes the next item, then leaves it.
+         *
+         * @return The two knapsacks with the next item decided on.
+         */
+        @Override
+        public Iterable<Configuration> getSuccessors()
+        {
+            return List.of(new Knapsack(weights, values, capacity, next + 1, weight + weights[next],
+                    value + values[next]), new Knapsack(weights, values, capacity, next + 1, weight, value));
+        }
+
+        /**
+         * Is the weight taken no more than the capacity?
+         *
+         * @return True if it isn't too heavy.
+         */
+        @Override
+        public boolean isValid()
+        {
+            return weight <= capacity;
+        }
+
+        /**
+         * Has every item been decided on?
+         *
+         * @return True if there are no items left.
+         */
+        @Override
+        public boolean isGoal()
+        {
+            return next == weights.length;
+        }
+
+        /**
+         * Works out the most value a knapsack below this one could have.
+         *
+         * @return The value taken, plus that of every item left which fits in the room left on its own.
+         */
+        @Override
+        public long getBound()
+        {
+            long bound = value;
+            for(int j = next; j < weights.length; ++j)
+            {
+                if(weight + weights[j] <= capacity)
+                    bound += values[j];
+            }
+            return bound;
+        }
+
+        /**
+         * Prints the weight and value taken.
+         */
+        @Override
+        public void display()
+        {
+            System.out.println(this);
+        }
+
+        /**
+         * Describes the knapsack.
+         *
+         * @return How many items are decided on, and the weight and value taken.
+         */
+        @Override
+        public String toString()
+        {
+            return next + " decided, weight " + weight + " of " + capacity + ", value " + value;
+        }
+    }
+
+    /**
+     * N queens with a queen put in each row in turn, searched in place or by copying. Each move is the column of the
+     * next queen, and only columns the queens already there don't attack are moves. When it is estimating, the
+     * estimate of a board is how many columns the next queen could go in.
+     */
+    private static class Queens implements MutableConfiguration
+    {
+        /**
+         * The size of the board, and whether the board estimates its branching.
+         */
+        private final int n;
+        private final boolean estimating;
+
+        /**
+         * The column of the queen in each row, for the rows filled so far.
+         */
+        private final int[] columns;
+
+        /**
+         * How many rows have a queen.
+         */
+        private int rows;
+
+        /**
+         * Makes an empty board.
+         *
+         * @param n The size of the board.
+         * @param estimating Should the board estimate its branching?
+         */
+        private Queens(int n, boolean estimating)
+        {
+            this.n = n;
+            this.estimating = estimating;
+            this.columns = new int[n];
+        }
+
+        /**
+         * Copy constructor.
+         *
+         * @param toCopy The board to copy.
+         */
+        private Queens(Queens toCopy)
+        {
+            this.n = toCopy.n;
+            this.estimating = toCopy.estimating;
+            this.columns = toCopy.columns.clone();
+            this.rows = toCopy.rows;
+        }
+
+        /**
+         * Finds the next column a queen can go in the next row without being attacked.
+         *
+         * @param previous The last column looked at, or NO_MOVE to find the first one.
+         *
+         * @return The column, or NO_MOVE if there aren't any more.
+         */
+        @Override
+        public int nextMove(int previous)
+        {
+            for(int column = previous + 1; column < n; ++column)
+            {
+                if(safe(column))
+                    return column;
+            }
+            return NO_MOVE;
+        }
+
+        /**
+         * Puts a queen in the next row.
+         *
+         * @param move The column to put it in.
+         */
+        @Override
+        public void apply(int move)
+        {
+            columns[rows++] = move;
+        }
+
+        /**
+         * Takes the queen in the last row back out.
+         *
+         * @param move The column it was in.
+         */
+        @Override
+        public void undo(int move)
+        {
+            --rows;
+        }
+
+        /**
+         * Makes a copy of the board for each column the next queen can go in.
+         *
+         * @return The boards with a queen in the next row.
+         */
+        @Override
+        public Iterable<Configuration> getSuccessors()
+        {
+            List<Configuration> successors = new ArrayList<>();
+            for(int move = nextMove(NO_MOVE); move != NO_MOVE; move = nextMove(move))
+            {
+                Queens successor = new Queens(this);
+                successor.apply(move);
+                successors.add(successor);
+            }
+            return successors;
+        }
+
+        /**
+         * Only safe columns are moves, so every board is valid.
+         *
+         * @return True.
+         */
+        @Override
+        public boolean isValid()
+        {
+            return true;
+        }
+
+        /**
+         * Does every row have a queen?
+         *
+         * @return True if the board is full.
+         */
+        @Override
+        public boolean isGoal()
+        {
+            return rows == n;
+        }
+
+        /**
+         * Counts the columns the next queen can go in, when the board is estimating.
+         *
+         * @return How many moves there are, or -1 if the board doesn't estimate.
+         */
+        @Override
+        public int estimateBranching()
+        {
+            if(!estimating)
+                return -1;
+            int count = 0;
+            for(int move = nextMove(NO_MOVE); move != NO_MOVE; move = nextMove(move))
+                ++count;
+            return count;
+        }
+
+        /**
+         * Checks the board without trusting the moves: a queen in every row, and no two in the same column or on
+         * the same diagonal.
+         *
+         * @return True if the board is solved.
+         */
+        private boolean isSolution()
+        {
+            for(int row = 0; row < n; ++row)
+            {
+                for(int other = 0; other < row; ++other)
+                {
+                    if(columns[row] == columns[other] || Math.abs(columns[row] - columns[other]) == row - other)
+                        return false;
+                }
+            }
+            return rows == n;
+        }
+
+        /**
+         * Is a column of the next row attacked by none of the queens?
+         *
+         * @param column The column.
+         *
+         * @return True if a queen can go there.
+         */
+        private boolean safe(int column)
+        {
+            for(int row = 0; row < rows; ++row)
+            {
+                if(columns[row] == column || Math.abs(columns[row] - column) == rows - row)
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Prints the columns of the queens.
+         */
+        @Override
+        public void display()
+        {
+            System.out.println(this);
+        }
+
+        /**
+         * Describes the board.
+         *
+         * @return The column of the queen in each row filled.
+         */
+        @Override
+        public String toString()
+        {
+            StringBuilder text = new StringBuilder();
+            for(int row = 0; row < rows; ++row)
+                text.append((row == 0) ? "" : " ").append(columns[row]);
+            return text.toString();
+        }
+    }
+}
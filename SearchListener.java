@@ -0,0 +1,68 @@
+/**
+ * Something that wants to be told what a Backtracker is doing while it
+ * searches. Every method does nothing by default, so a listener only
+ * has to override the events it cares about. The Backtracker calls
+ * these on the thread doing the search, so they should be quick.
+ *
+ * The ExactCoverSolver tells a listener about its search too, but it
+ * has no configurations until the end, so it passes null for them.
+ *
+ * @author Kevin Becker
+ */
+public interface SearchListener {
+    /**
+     * A search is starting.
+     *
+     * @param config The configuration the search starts from
+     */
+    public default void searchStarted( Configuration config ) {
+    }
+
+    /**
+     * A configuration which is not a goal is about to have its
+     * successors tried.
+     *
+     * @param config The configuration
+     * @param depth  How many moves config is from the start
+     */
+    public default void expanded( Configuration config, int depth ) {
+    }
+
+    /**
+     * A successor was made and checked.
+     *
+     * @param child The successor
+     * @param depth How many moves child is from the start
+     * @param valid Whether child is valid
+     */
+    public default void successor( Configuration child, int depth,
+                                   boolean valid ) {
+    }
+
+    /**
+     * Every successor of a configuration failed, so the search is
+     * going back up from it.
+     *
+     * @param config The configuration
+     * @param depth  How many moves config is from the start
+     */
+    public default void backtracked( Configuration config, int depth ) {
+    }
+
+    /**
+     * A goal was reached.
+     *
+     * @param config The goal configuration
+     * @param depth  How many moves config is from the start
+     */
+    public default void solved( Configuration config, int depth ) {
+    }
+
+    /**
+     * A search is over.
+     *
+     * @param solved Whether a solution was found
+     */
+    public default void searchFinished( boolean solved ) {
+    }
+}
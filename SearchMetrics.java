@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A SearchListener which counts what a search does: the Configurations expanded, the successors made and how many of
+ * them were valid, the deepest the search got, how many times it backtracked at each depth, and how long it took to
+ * find its first solution. The counts can be read at any time, including from another thread while the search is
+ * still running, and can be added to from several threads at once.
+ *
+ * The counts add up over every search until reset(); the time to the first solution is for the latest search.
+ *
+ * @author Kevin Becker
+ */
+public class SearchMetrics implements SearchListener
+{
+    /**
+     * How many Configurations had their successors tried.
+     */
+    private final LongAdder expanded = new LongAdder();
+
+    /**
+     * How many successors were made.
+     */
+    private final LongAdder generated = new LongAdder();
+
+    /**
+     * How many successors were valid.
+     */
+    private final LongAdder valid = new LongAdder();
+
+    /**
+     * How many successors were not valid.
+     */
+    private final LongAdder invalid = new LongAdder();
+
+    /**
+     * How many goals were reached.
+     */
+    private final LongAdder solutions = new LongAdder();
+
+    /**
+     * The deepest Configuration expanded or solved.
+     */
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    /**
+     * How many times the search backtracked from each depth. It is replaced by a bigger copy when a deeper backtrack
+     * comes along (a backtrack another thread counts while it is being copied can be missed).
+     */
+    private volatile AtomicLongArray backtracks = new AtomicLongArray(16);
+
+    /**
+     * When the latest search started, from System.nanoTime().
+     */
+    private volatile long started;
+
+    /**
+     * How long after it started the latest search found its first solution, in nanoseconds, or -1 if it hasn't.
+     */
+    private final AtomicLong firstSolution = new AtomicLong(-1);
+
+    /**
+     * Starts timing a search.
+     *
+     * @param config The Configuration the search starts from.
+     */
+    @Override
+    public void searchStarted(Configuration config)
+    {
+        firstSolution.set(-1);
+        started = System.nanoTime();
+    }
+
+    /**
+     * Counts one expanded Configuration.
+     *
+     * @param config The Configuration.
+     * @param depth How many moves config is from the start.
+     */
+    @Override
+    public void expanded(Configuration config, int depth)
+    {
+        expanded.increment();
+        reached(depth);
+    }
+
+    /**
+     * Counts one successor.
+     *
+     * @param child The successor.
+     * @param depth How many moves child is from the start.
+     * @param valid Whether child is valid.
+     */
+    @Override
+    public void successor(Configuration child, int depth, boolean valid)
+    {
+        generated.increment();
+        (valid ? this.valid : invalid).increment();
+    }
+
+    /**
+     * Counts one backtrack at a depth.
+     *
+     * @param config The Configuration backtracked from.
+     * @param depth How many moves config is from the start.
+     */
+    @Override
+    public void backtracked(Configuration config, int depth)
+    {
+        AtomicLongArray counts = backtracks;
+        if(depth >= counts.length())
+            counts = grow(depth);
+        counts.incrementAndGet(depth);
+    }
+
+    /**
+     * Counts one goal, and the time to it if it is the first of this search.
+     *
+     * @param config The goal Configuration.
+     * @param depth How many moves config is from the start.
+     */
+    @Override
+    public void solved(Configuration config, int depth)
+    {
+        solutions.increment();
+        reached(depth);
+        firstSolution.compareAndSet(-1, System.nanoTime() - started);
+    }
+
+    /**
+     * Records that the search got to a depth.
+     *
+     * @param depth The depth.
+     */
+    private void reached(int depth)
+    {
+        if(depth > maxDepth.get())
+            maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * Makes the backtrack counts big enough to hold a depth.
+     *
+     * @param depth The depth.
+     *
+     * @return The counts, big enough.
+     */
+    private synchronized AtomicLongArray grow(int depth)
+    {
+        AtomicLongArray old = backtracks;
+        if(depth < old.length())
+            return old;
+
+        AtomicLongArray counts = new AtomicLongArray(Math.max(depth + 1, old.length() * 2));
+        for(int i = 0; i < old.length(); ++i)
+            counts.set(i, old.get(i));
+        backtracks = counts;
+        return counts;
+    }
+
+    /**
+     * Getter for the number of expanded Configurations.
+     *
+     * @return How many Configurations had their successors tried.
+     */
+    public long getExpanded()
+    {
+        return expanded.sum();
+    }
+
+    /**
+     * Getter for the number of successors made.
+     *
+     * @return How many successors were made.
+     */
+    public long getGenerated()
+    {
+        return generated.sum();
+    }
+
+    /**
+     * Getter for the number of valid successors.
+     *
+     * @return How many successors were valid.
+     */
+    public long getValid()
+    {
+        return valid.sum();
+    }
+
+    /**
+     * Getter for the number of successors which were not valid.
+     *
+     * @return How many successors were not valid.
+     */
+    public long getInvalid()
+    {
+        return invalid.sum();
+    }
+
+    /**
+     * Getter for the number of goals reached.
+     *
+     * @return How many goals were reached.
+     */
+    public long getSolutions()
+    {
+        return solutions.sum();
+    }
+
+    /**
+     * Getter for the deepest the search got.
+     *
+     * @return The most moves from the start of any Configuration expanded or solved.
+     */
+    public int getMaxDepth()
+    {
+        return maxDepth.get();
+    }
+
+    /**
+     * Getter for the number of backtracks at each depth.
+     *
+     * @return A copy of the counts, indexed by depth, up to the deepest backtrack.
+     */
+    public long[] getBacktracks()
+    {
+        AtomicLongArray counts = backtracks;
+        int length = counts.length();
+        while(length > 0 && counts.get(length - 1) == 0)
+            --length;
+
+        long[] copy = new long[length];
+        for(int i = 0; i < length; ++i)
+            copy[i] = counts.get(i);
+        return copy;
+    }
+
+    /**
+     * Getter for the total number of backtracks.
+     *
+     * @return How many times the search backtracked, at any depth.
+     */
+    public long getTotalBacktracks()
+    {
+        long total = 0;
+        for(long count : getBacktracks())
+            total += count;
+        return total;
+    }
+
+    /**
+     * Getter for the time the latest search took to find its first solution.
+     *
+     * @return The time in nanoseconds, or -1 if it hasn't found one.
+     */
+    public long getNanosToFirstSolution()
+    {
+        return firstSolution.get();
+    }
+
+    /**
+     * Sets every count back to 0.
+     */
+    public synchronized void reset()
+    {
+        expanded.reset();
+        generated.reset();
+        valid.reset();
+        invalid.reset();
+        solutions.reset();
+        maxDepth.set(0);
+        backtracks = new AtomicLongArray(16);
+        firstSolution.set(-1);
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return Every count, with the backtracks per depth last.
+     */
+    @Override
+    public String toString()
+    {
+        long nanos = getNanosToFirstSolution();
+        return "expanded " + getExpanded() + ", generated " + getGenerated() + " (" + getValid() + " valid, " +
+                getInvalid() + " invalid), max depth " + getMaxDepth() + ", first solution " +
+                ((nanos < 0) ? "none" : String.format("%.3f ms", nanos / 1_000_000.0)) + ", backtracks " +
+                getTotalBacktracks() + " by depth " + Arrays.toString(getBacktracks());
+    }
+}
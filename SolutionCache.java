@@ -0,0 +1,412 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the answers to problems which have been solved before. Problems are looked up by their canonical form:
+ * the size of the Trunk and the sizes of the suitcases, each with its shorter side first, sorted. Names don't matter,
+ * so a hit for suitcases with different names gives back the cached layout with their names put into it. Problems with
+ * no solution are remembered too.
+ *
+ * Only so many answers are kept in memory, and the least recently used one is forgotten to make room for a new one.
+ * If a store file is given, every new answer is also added to the end of it, and the answers in it are loaded when the
+ * cache is made, so they last from one run to the next.
+ *
+ * Each line of the store is the canonical form, a tab, and either NO or the position of each suitcase in canonical
+ * order as row,col,length,width separated by semicolons.
+ *
+ * @author Kevin Becker
+ */
+public class SolutionCache implements AutoCloseable
+{
+    /**
+     * The canonical order of suitcases: by shorter side, then by longer side.
+     */
+    private static final Comparator<Suitcase> CANONICAL_ORDER =
+            Comparator.<Suitcase>comparingInt(s -> Math.min(s.getLength(), s.getWidth()))
+                    .thenComparingInt(s -> Math.max(s.getLength(), s.getWidth()));
+
+    /**
+     * What is stored for a problem with no solution.
+     */
+    private static final String UNSOLVABLE = "NO";
+
+    /**
+     * The layout of a problem with no solution (told apart from the layout of no suitcases by being this array).
+     */
+    private static final int[] NO_SOLUTION = new int[0];
+
+    /**
+     * The answers in memory, least recently used first. An unsolvable problem maps to NO_SOLUTION.
+     */
+    private final LinkedHashMap<String, int[]> answers;
+
+    /**
+     * Where new answers are added (null if they aren't saved).
+     */
+    private final BufferedWriter store;
+
+    /**
+     * The counts.
+     */
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Makes a cache which only keeps answers in memory.
+     *
+     * @param capacity The most answers to keep.
+     */
+    public SolutionCache(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Makes a cache, loading the answers already in a store file.
+     *
+     * @param capacity The most answers to keep in memory.
+     * @param storeFile The file to load answers from and add new ones to, or null to not save them.
+     *
+     * @throws UncheckedIOException if the store file can't be read or opened for adding to
+     */
+    public SolutionCache(int capacity, Path storeFile)
+    {
+        this.answers = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest)
+            {
+                if(size() <= capacity)
+                    return false;
+                ++evictions;
+                return true;
+            }
+        };
+
+        try
+        {
+            if(storeFile != null && Files.exists(storeFile))
+                load(storeFile);
+            boolean torn = storeFile != null && Files.exists(storeFile) && !endsWithLine(storeFile);
+            this.store = (storeFile == null) ? null : Files.newBufferedWriter(storeFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            // a line cut off part of the way through gets ended, so the next answer isn't added onto it
+            if(torn)
+            {
+                store.newLine();
+                store.flush();
+            }
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        // only answers pushed out while running count
+        evictions = 0;
+    }
+
+    /**
+     * Works out the canonical form of a problem.
+     *
+     * @param problem The problem.
+     *
+     * @return The size of the Trunk and the sizes of the suitcases, shorter side first, in canonical order.
+     */
+    public static String canonicalForm(TrunkProblem problem)
+    {
+        StringBuilder form = new StringBuilder();
+        form.append(problem.getLength()).append('x').append(problem.getWidth()).append(':');
+        List<Suitcase> cases = canonicalCases(problem);
+        for(int i = 0; i < cases.size(); ++i)
+        {
+            Suitcase suitcase = cases.get(i);
+            form.append((i == 0) ? "" : ",")
+                    .append(Math.min(suitcase.getLength(), suitcase.getWidth())).append('x')
+                    .append(Math.max(suitcase.getLength(), suitcase.getWidth()));
+        }
+        return form.toString();
+    }
+
+    /**
+     * Looks up a problem.
+     *
+     * @param problem The problem.
+     * @param options How the Trunk given back should be stored.
+     *
+     * @return Empty if the problem isn't cached; otherwise the answer: a solved Trunk with the problem's suitcases in
+     *         it, or empty if it has no solution.
+     */
+    public synchronized Optional<Optional<Configuration>> get(TrunkProblem problem, TrunkOptions options)
+    {
+        int[] layout = answers.get(canonicalForm(problem));
+        if(layout == null)
+        {
+            ++misses;
+            return Optional.empty();
+        }
+        ++hits;
+        if(layout == NO_SOLUTION)
+            return Optional.of(Optional.empty());
+
+        // the i-th suitcase in canonical order goes where the cached i-th one went, turned to match it
+        List<Suitcase> cases = canonicalCases(problem);
+        Trunk trunk = problem.toTrunk(options);
+        for(int i = 0; i < cases.size(); ++i)
+        {
+            Suitcase suitcase = cases.get(i);
+            int row = layout[4 * i];
+            int col = layout[4 * i + 1];
+            int length = layout[4 * i + 2];
+            trunk.putSuitcase(row, col, (suitcase.getLength() == length) ? suitcase : suitcase.turned());
+        }
+        return Optional.of(Optional.of(trunk));
+    }
+
+    /**
+     * Remembers the answer to a problem, and adds it to the store.
+     *
+     * @param problem The problem.
+     * @param solution The solved Trunk, or empty if the problem has no solution.
+     *
+     * @throws UncheckedIOException if the answer can't be added to the store
+     */
+    public synchronized void put(TrunkProblem problem, Optional<Configuration> solution)
+    {
+        int[] layout = solution.isPresent() ? layout(((Trunk) solution.get()).placements()) : NO_SOLUTION;
+        String form = canonicalForm(problem);
+        answers.put(form, layout);
+
+        if(store != null)
+        {
+            try
+            {
+                store.write(form + '\t' + encode(layout));
+                store.newLine();
+                store.flush();
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Closes the store file, if there is one.
+     *
+     * @throws IOException if the store can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if(store != null)
+            store.close();
+    }
+
+    /**
+     * Getter for the number of lookups that found an answer.
+     *
+     * @return How many lookups hit.
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Getter for the number of lookups that didn't find an answer.
+     *
+     * @return How many lookups missed.
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Getter for the number of answers forgotten to make room.
+     *
+     * @return How many answers were evicted.
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Getter for the number of answers in memory.
+     *
+     * @return How many answers are cached.
+     */
+    public synchronized int size()
+    {
+        return answers.size();
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return The hits, misses, evictions and size.
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return "hits " + hits + ", misses " + misses + ", evictions " + evictions + " (" + answers.size() +
+                " cached)";
+    }
+
+    /**
+     * Gets the suitcases of a problem in canonical order.
+     *
+     * @param problem The problem.
+     *
+     * @return Its suitcases, sorted by shorter side then longer side.
+     */
+    private static List<Suitcase> canonicalCases(TrunkProblem problem)
+    {
+        List<Suitcase> cases = problem.getCases();
+        cases.sort(CANONICAL_ORDER);
+        return cases;
+    }
+
+    /**
+     * Writes down where each suitcase is in a solved Trunk. Suitcases the same size can go in each other's places, so
+     * they only need to be in canonical order, not matched up by name (those the same size go by their corners).
+     *
+     * @param placements Where each suitcase is in the Trunk.
+     *
+     * @return The row, column, length and width of each suitcase, in canonical order.
+     */
+    private static int[] layout(List<Placement> placements)
+    {
+        placements.sort(Comparator.comparing(Placement::getSuitcase, CANONICAL_ORDER)
+                .thenComparingInt(Placement::getRow).thenComparingInt(Placement::getCol));
+        int[] layout = new int[4 * placements.size()];
+        for(int i = 0; i < placements.size(); ++i)
+        {
+            Placement placement = placements.get(i);
+            layout[4 * i] = placement.getRow();
+            layout[4 * i + 1] = placement.getCol();
+            layout[4 * i + 2] = placement.getSuitcase().getLength();
+            layout[4 * i + 3] = placement.getSuitcase().getWidth();
+        }
+        return layout;
+    }
+
+    /**
+     * Writes a layout the way the store has it.
+     *
+     * @param layout The layout, or NO_SOLUTION.
+     *
+     * @return The layout as text.
+     */
+    private static String encode(int[] layout)
+    {
+        if(layout == NO_SOLUTION)
+            return UNSOLVABLE;
+
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < layout.length; i += 4)
+        {
+            text.append((i == 0) ? "" : ";").append(layout[i]).append(',').append(layout[i + 1]).append(',')
+                    .append(layout[i + 2]).append(',').append(layout[i + 3]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads a layout the way the store has it.
+     *
+     * @param text The layout as text.
+     *
+     * @return The layout, or NO_SOLUTION.
+     */
+    private static int[] decode(String text)
+    {
+        if(text.equals(UNSOLVABLE))
+            return NO_SOLUTION;
+        if(text.isEmpty())
+            return new int[0];
+
+        String[] cases = text.split(";");
+        int[] layout = new int[4 * cases.length];
+        for(int i = 0; i < cases.length; ++i)
+        {
+            String[] numbers = cases[i].split(",");
+            for(int j = 0; j < 4; ++j)
+                layout[4 * i + j] = Integer.parseInt(numbers[j]);
+        }
+        return layout;
+    }
+
+    /**
+     * Does a file end with a line separator (or have nothing in it)?
+     *
+     * @param file The file.
+     *
+     * @return True if it is empty or its last byte ends a line; false if its last line was cut off.
+     *
+     * @throws IOException if the file can't be read
+     */
+    private static boolean endsWithLine(Path file) throws IOException
+    {
+        try (SeekableByteChannel channel = Files.newByteChannel(file))
+        {
+            if(channel.size() == 0)
+                return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n' || last.get(0) == '\r';
+        }
+    }
+
+    /**
+     * Loads every answer in a store file. A line which can't be read (e.g. the last one, if a run was killed while
+     * writing it) is skipped.
+     *
+     * @param storeFile The store file.
+     *
+     * @throws IOException if the file can't be read
+     */
+    private void load(Path storeFile) throws IOException
+    {
+        try (BufferedReader reader = Files.newBufferedReader(storeFile, StandardCharsets.UTF_8))
+        {
+            String line;
+            while((line = reader.readLine()) != null)
+            {
+                int tab = line.indexOf('\t');
+                if(tab < 0)
+                    continue;
+                try
+                {
+                    int[] layout = decode(line.substring(tab + 1));
+                    String form = line.substring(0, tab);
+                    String sizes = form.substring(form.indexOf(':') + 1);
+                    int count = sizes.isEmpty() ? 0 : sizes.split(",").length;
+                    if(layout == NO_SOLUTION || layout.length == 4 * count)
+                        answers.put(form, layout);
+                }
+                catch(RuntimeException e)
+                {
+                    // a broken line is just not cached
+                }
+            }
+        }
+    }
+}
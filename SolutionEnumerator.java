@@ -0,0 +1,345 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Finds every solution below a configuration instead of stopping at
+ * the first one, the way Backtracker does. The solutions come out as a
+ * lazy stream, which can be split up and run in parallel; or they can
+ * just be counted, which searches in place and never makes a solution
+ * configuration at all.
+ *
+ * What counts as a different solution is up to the puzzle's
+ * successors. For Trunks, NEXT_SUITCASE branching finds every packing
+ * once; FIRST_EMPTY_CELL branching treats packings which only swap
+ * suitcases of the same size as the same.
+ *
+ * @author Kevin Becker
+ */
+public class SolutionEnumerator {
+    /**
+     * Configurations are only forked off as tasks while fewer than this
+     * many are queued up beyond what the other threads are stealing.
+     */
+    private static final int SURPLUS_TASKS = 2;
+
+    /**
+     * Only static methods, so no instances.
+     */
+    private SolutionEnumerator() {
+    }
+
+    /**
+     * Get a stream of every solution below a configuration. Nothing is
+     * searched until the stream is used, and only as far as it is used.
+     *
+     * @param config   A valid configuration
+     * @param parallel Whether the stream should be parallel
+     * @return The solutions, in depth first order if sequential
+     */
+    public static Stream< Configuration > stream( Configuration config,
+                                                  boolean parallel ) {
+        return StreamSupport.stream( new Solutions( config ), parallel );
+    }
+
+    /**
+     * Count the solutions below a configuration by searching it in
+     * place. Nothing is made for each node, so it only needs an int per
+     * level of the search however many solutions there are.
+     *
+     * @param config A valid configuration which can be searched in place
+     * @return The number of solutions (config is back how it started)
+     */
+    public static long count( MutableConfiguration config ) {
+        return countInPlace( config );
+    }
+
+    /**
+     * count, for any configuration which says it is mutable.
+     *
+     * @param config A valid mutable configuration
+     * @return The number of solutions (config is back how it started)
+     */
+    private static long countInPlace( Configuration config ) {
+        if ( config.isGoal() ) {
+            return 1;
+        }
+        long count = 0;
+        int[] moves = new int[]{ MutableConfiguration.NO_MOVE };
+        int depth = 0;
+        while ( true ) {
+            int move = config.nextMove( moves[ depth ] );
+            if ( move == MutableConfiguration.NO_MOVE ) {
+                if ( depth == 0 ) {
+                    return count;
+                }
+                --depth;
+                config.undo( moves[ depth ] );
+                continue;
+            }
+            moves[ depth ] = move;
+            config.apply( move );
+            if ( !config.isValid() ) {
+                config.undo( move );
+            }
+            else if ( config.isGoal() ) {
+                ++count;
+                config.undo( move );
+            }
+            else {
+                ++depth;
+                if ( depth == moves.length ) {
+                    moves = Arrays.copyOf( moves, moves.length * 2 );
+                }
+                moves[ depth ] = MutableConfiguration.NO_MOVE;
+            }
+        }
+    }
+
+    /**
+     * Count the solutions below a configuration on several threads.
+     * Successors are copied off as tasks while there are idle threads
+     * to take them, and counted in place (if they can be) otherwise.
+     *
+     * @param config      A valid configuration
+     * @param parallelism How many threads to count with
+     * @return The number of solutions
+     */
+    public static long count( Configuration config, int parallelism ) {
+        ForkJoinPool pool = new ForkJoinPool( parallelism );
+        try {
+            return pool.invoke( new CountTask( config ) );
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The count below one configuration, as a fork/join task.
+     */
+    @SuppressWarnings( "serial" )
+    private static class CountTask extends RecursiveTask< Long > {
+        /*
+         * The configuration to count below
+         */
+        private final Configuration config;
+
+        /**
+         * Make a task to count below a configuration.
+         *
+         * @param config The configuration to count below
+         */
+        private CountTask( Configuration config ) {
+            this.config = config;
+        }
+
+        /**
+         * Count below the configuration, forking successors off as
+         * tasks while other threads are looking for work.
+         *
+         * @return The number of solutions below the configuration
+         */
+        @Override
+        protected Long compute() {
+            if ( this.config.isGoal() ) {
+                return 1L;
+            }
+            if ( getSurplusQueuedTaskCount() >= SURPLUS_TASKS ) {
+                return this.config.isMutable() ?
+                       countInPlace( this.config ) :
+                       stream( this.config, false ).count();
+            }
+            List< CountTask > forked = new ArrayList<>();
+            for ( Configuration child : this.config.getSuccessors() ) {
+                if ( child.isValid() ) {
+                    CountTask task = new CountTask( child );
+                    task.fork();
+                    forked.add( task );
+                }
+            }
+            long count = 0;
+            for ( CountTask task : forked ) {
+                count += task.join();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Walks the search tree depth first, handing out each goal it
+     * reaches. It splits by giving away half of the successors left at
+     * the shallowest level that has any, since those are the biggest
+     * parts of the tree.
+     */
+    private static class Solutions implements Spliterator< Configuration > {
+        /*
+         * The successors still to search at each level, deepest first
+         */
+        private final Deque< Level > stack = new ArrayDeque<>();
+
+        /**
+         * Make a spliterator over the solutions below a configuration.
+         *
+         * @param config A valid configuration
+         */
+        private Solutions( Configuration config ) {
+            this.stack.push( new Level(
+                    List.of( config ).iterator(), false ) );
+        }
+
+        /**
+         * Make a spliterator over the solutions below some
+         * configurations.
+         *
+         * @param level The configurations
+         */
+        private Solutions( Level level ) {
+            this.stack.push( level );
+        }
+
+        /**
+         * Search on until the next goal.
+         *
+         * @param action What to do with the goal
+         * @return true if there was another goal; false if the search
+         *         is over
+         */
+        @Override
+        public boolean tryAdvance( Consumer< ? super Configuration > action ) {
+            while ( !this.stack.isEmpty() ) {
+                Level top = this.stack.peek();
+                if ( !top.configs.hasNext() ) {
+                    this.stack.pop();
+                    continue;
+                }
+                Configuration config = top.configs.next();
+                if ( top.check && !config.isValid() ) {
+                    continue;
+                }
+                if ( config.isGoal() ) {
+                    action.accept( config );
+                    return true;
+                }
+                this.stack.push( new Level(
+                        config.getSuccessors().iterator(), true ) );
+            }
+            return false;
+        }
+
+        /**
+         * Give away half of the configurations left at the shallowest
+         * level that has any.
+         *
+         * @return A spliterator over the solutions below them, or null
+         *         if there is nothing worth giving away
+         */
+        @Override
+        public Spliterator< Configuration > trySplit() {
+            // before anything is searched there is only the starting
+            // configuration, which has to be expanded to have anything
+            // to give away
+            while ( this.stack.size() == 1 && expandOnly() ) {
+            }
+            Iterator< Level > levels = this.stack.descendingIterator();
+            while ( levels.hasNext() ) {
+                Level level = levels.next();
+                List< Configuration > left = new ArrayList<>();
+                level.configs.forEachRemaining( left::add );
+                // the last one left is only worth giving away if there is
+                // a deeper level to keep searching
+                if ( left.size() > 1 || left.size() == 1 && levels.hasNext() ) {
+                    int half = Math.max( left.size() / 2, 1 );
+                    level.configs =
+                            left.subList( half, left.size() ).iterator();
+                    return new Solutions( new Level(
+                            left.subList( 0, half ).iterator(),
+                            level.check ) );
+                }
+                level.configs = left.iterator();
+            }
+            return null;
+        }
+
+        /**
+         * If the only level has only one configuration left, replace it
+         * with the level of that configuration's successors.
+         *
+         * @return true if it was replaced; false if there was more than
+         *         one configuration, or the one was a goal or not valid
+         */
+        private boolean expandOnly() {
+            Level level = this.stack.peek();
+            List< Configuration > left = new ArrayList<>();
+            level.configs.forEachRemaining( left::add );
+            level.configs = left.iterator();
+            if ( left.size() != 1 ) {
+                return false;
+            }
+            Configuration config = left.get( 0 );
+            if ( level.check && !config.isValid() || config.isGoal() ) {
+                return false;
+            }
+            this.stack.pop();
+            this.stack.push( new Level(
+                    config.getSuccessors().iterator(), true ) );
+            return true;
+        }
+
+        /**
+         * There is no telling how many solutions there are.
+         *
+         * @return Long.MAX_VALUE
+         */
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * The solutions are never null.
+         *
+         * @return NONNULL
+         */
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+
+    /**
+     * One level of the search: the configurations left to search there.
+     */
+    private static class Level {
+        /*
+         * The configurations left
+         */
+        private Iterator< Configuration > configs;
+
+        /*
+         * Whether they have to be checked for validity (the one a
+         * search starts from doesn't)
+         */
+        private final boolean check;
+
+        /**
+         * Make a level.
+         *
+         * @param configs The configurations left
+         * @param check   Whether they have to be checked for validity
+         */
+        private Level( Iterator< Configuration > configs, boolean check ) {
+            this.configs = configs;
+            this.check = check;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.FileNotFoundException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A steady-state benchmark of the solver, so a change can be judged against a stable baseline instead of one cold run
+ * timed by Tests. It covers the three fixed tests, any problem files given (11-14-full.txt if none are given), and a
+ * few seeded random problems from Tests.randomProblem().
+ *
+ * Each problem is solved over and over for a warm-up period, then measured over several fixed-length iterations. For
+ * each problem it prints the throughput (solves per second), the average time per solve with its error (the standard
+ * deviation over the iterations), the bytes allocated per solve, and the garbage collections during measurement.
+ *
+ * The FeasibilityCheck is off unless --feasibility is given, since it rejects test3 and every random problem (they
+ * have more suitcase area than Trunk area) without searching, and then the search wouldn't be timed at all. With it
+ * on, the problems it rejects are timed being rejected, in a table of their own after the searched ones.
+ *
+ * Run with: java SolverBenchmark [-w warmupSeconds] [-i iterations] [-t iterationSeconds] [-r randomCount]
+ *           [-d randomDim] [-s seed] [--nodlx] [--feasibility] [fileName ...]
+ *
+ * @author Kevin Becker
+ */
+public class SolverBenchmark
+{
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * The number of nanoseconds in a microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /**
+     * Results of solves are added in here so the JIT cannot throw the solves away.
+     */
+    private static long sink;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The options described above, then the problem files.
+     *
+     * @throws FileNotFoundException if a problem file cannot be opened for reading
+     */
+    public static void main(String[] args) throws FileNotFoundException
+    {
+        double warmupSeconds = 2;
+        int iterations = 5;
+        double iterationSeconds = 1;
+        int randomCount = 3;
+        int randomDim = 6;
+        long seed = 1;
+        boolean exactCover = true;
+        boolean feasibility = false;
+
+        List<String> fileNames = new ArrayList<>();
+        for(int i = 0; i < args.length; ++i)
+        {
+            switch(args[i])
+            {
+                case "-w" -> warmupSeconds = Double.parseDouble(args[++i]);
+                case "-i" -> iterations = Integer.parseInt(args[++i]);
+                case "-t" -> iterationSeconds = Double.parseDouble(args[++i]);
+                case "-r" -> randomCount = Integer.parseInt(args[++i]);
+                case "-d" -> randomDim = Integer.parseInt(args[++i]);
+                case "-s" -> seed = Long.parseLong(args[++i]);
+                case "--nodlx" -> exactCover = false;
+                case "--feasibility" -> feasibility = true;
+                default -> fileNames.add(args[i]);
+            }
+        }
+        if(fileNames.isEmpty())
+            fileNames.add("11-14-full.txt");
+
+        List<TrunkProblem> problems = new ArrayList<>(Tests.fixedProblems());
+        List<String> names = new ArrayList<>(List.of("test1", "test2", "test3"));
+        for(String fileName : fileNames)
+        {
+            problems.add(TrunkProblem.read(fileName));
+            names.add(fileName);
+        }
+        Random rnd = new Random(seed);
+        for(int i = 0; i < randomCount; ++i)
+        {
+            problems.add(Tests.randomProblem(rnd, randomDim));
+            names.add("random" + seed + "-" + i);
+        }
+
+        // the solver never checks, so that what it is timed doing is always the search
+        TrunkSolver solver = new TrunkSolver(new Backtracker(false), new TrunkOptions()).setExactCover(exactCover)
+                .setFeasibilityCheck(null);
+        FeasibilityCheck check = new FeasibilityCheck();
+        long warmup = (long) (warmupSeconds * NANOS_PER_SECOND);
+        long iteration = (long) (iterationSeconds * NANOS_PER_SECOND);
+
+        printHeader("problem");
+        List<Integer> rejected = new ArrayList<>();
+        for(int p = 0; p < problems.size(); ++p)
+        {
+            TrunkProblem problem = problems.get(p);
+            if(feasibility && check.check(problem).isPresent())
+            {
+                rejected.add(p);
+                continue;
+            }
+            measure(names.get(p), () -> solver.solve(problem).isPresent(), warmup, iterations, iteration);
+        }
+
+        if(!rejected.isEmpty())
+        {
+            System.out.println();
+            printHeader("rejected");
+            for(int p : rejected)
+            {
+                TrunkProblem problem = problems.get(p);
+                measure(names.get(p) + " (" + check.check(problem).get() + ")", () -> check.check(problem).isPresent(),
+                        warmup, iterations, iteration);
+            }
+        }
+        if(sink == 42)
+            System.out.println();
+    }
+
+    /**
+     * Prints the column headings.
+     *
+     * @param first The heading of the column the problems' names are in.
+     */
+    private static void printHeader(String first)
+    {
+        System.out.printf("%-20s %14s %16s %12s %14s %6s %8s%n", first, "ops/s", "avg us/op", "error", "bytes/op", "gc",
+                "gc ms");
+    }
+
+    /**
+     * Warms up a solve of one problem, then measures it over several iterations and prints a line for it.
+     *
+     * @param name The problem's name.
+     * @param solve Solves the problem once, saying whether it has a solution.
+     * @param warmup How long to warm up for, in nanoseconds.
+     * @param iterations How many iterations to measure.
+     * @param iteration How long each iteration is, in nanoseconds.
+     */
+    private static void measure(String name, BooleanSupplier solve, long warmup, int iterations, long iteration)
+    {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        run(solve, warmup);
+
+        double[] averages = new double[iterations];
+        long solves = 0;
+        long elapsed = 0;
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        for(int i = 0; i < iterations; ++i)
+        {
+            long begin = System.nanoTime();
+            long done = run(solve, iteration);
+            long time = System.nanoTime() - begin;
+            averages[i] = (double) time / done;
+            solves += done;
+            elapsed += time;
+        }
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.printf("%-20s %14.1f %16.3f %12.3f %14d %6d %8d%n", name, solves * NANOS_PER_SECOND / elapsed,
+                mean(averages) / NANOS_PER_MICRO, deviation(averages) / NANOS_PER_MICRO, bytes / solves,
+                gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    /**
+     * Solves a problem over and over for a period of time. At least one solve is always done.
+     *
+     * @param solve Solves the problem once, saying whether it has a solution.
+     * @param nanos How long to keep solving for, in nanoseconds.
+     *
+     * @return The number of solves done.
+     */
+    private static long run(BooleanSupplier solve, long nanos)
+    {
+        long end = System.nanoTime() + nanos;
+        long done = 0;
+        do
+        {
+            sink += solve.getAsBoolean() ? 1 : 0;
+            ++done;
+        } while(System.nanoTime() < end);
+        return done;
+    }
+
+    /**
+     * Works out the mean of some values.
+     *
+     * @param values The values.
+     *
+     * @return The mean.
+     */
+    private static double mean(double[] values)
+    {
+        double sum = 0;
+        for(double value : values)
+            sum += value;
+        return sum / values.length;
+    }
+
+    /**
+     * Works out the sample standard deviation of some values.
+     *
+     * @param values The values.
+     *
+     * @return The standard deviation, or 0 if there is only one value.
+     */
+    private static double deviation(double[] values)
+    {
+        if(values.length < 2)
+            return 0;
+        double mean = mean(values);
+        double squares = 0;
+        for(double value : values)
+            squares += (value - mean) * (value - mean);
+        return Math.sqrt(squares / (values.length - 1));
+    }
+
+    /**
+     * Counts the garbage collections so far, over every collector.
+     *
+     * @return The number of collections.
+     */
+    private static long gcCount()
+    {
+        long count = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, collector.getCollectionCount());
+        return count;
+    }
+
+    /**
+     * Adds up the time spent collecting garbage so far, over every collector.
+     *
+     * @return The time, in milliseconds.
+     */
+    private static long gcTime()
+    {
+        long time = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, collector.getCollectionTime());
+        return time;
+    }
+}
@@ -8,17 +8,21 @@ public class Suitcase {
     /**
      * The name of the Suitcase.
      */
-    private char name;
+    private final char name;
 
     /**
      * The length of the Suitcase.
      */
-    private int length;
+    private final int length;
     /**
      * The width of the Suitcase.
      */
-    private int width;
+    private final int width;
 
+    /**
+     * This suitcase turned 90 degrees, made the first time it is asked for.
+     */
+    private Suitcase turned;
 
     /**
      * Make a new suitcase.
@@ -42,13 +46,30 @@ public class Suitcase {
         return (length == width);
     }
 
+    /**
+     * Could this suitcase go wherever another one can?
+     * @param other the suitcase to compare sizes with
+     * @return true iff the two have the same dimensions, either way
+     *         around (the names are not compared)
+     */
+    public boolean sameSize( Suitcase other )
+    {
+        return this.length == other.length && this.width == other.width ||
+               this.length == other.width && this.width == other.length;
+    }
+
     /**
      * What would the suitcase be if it were turned 90 degrees?
-     * @return a new suitcase with transposed dimensions
+     * @return a suitcase with transposed dimensions (the same one every
+     *         time, so turning does not keep making new suitcases)
      */
     public Suitcase turned()
     {
-        return new Suitcase(this.name, this.width, this.length);
+        if ( this.turned == null ) {
+            this.turned = new Suitcase(this.name, this.width, this.length);
+            this.turned.turned = this;
+        }
+        return this.turned;
     }
 
     /**
@@ -124,12 +145,23 @@ public class Suitcase {
      * </p>
      */
     public void display() {
+        StringBuilder out = new StringBuilder();
+        display( out );
+        System.out.print( out );
+    }
+
+    /**
+     * Display the suitcase the same way as display(), into a buffer.
+     *
+     * @param out The buffer to add to
+     */
+    public void display( StringBuilder out ) {
         for ( int y = 0 ; y < this.width; ++y ) {
-            System.out.print( '\t' );
+            out.append( '\t' );
             for ( int x = 0; x < this.length; ++x ) {
-                System.out.print( this.name );
+                out.append( this.name );
             }
-            System.out.println();
+            out.append( System.lineSeparator() );
         }
     }
 }
@@ -0,0 +1,73 @@
+import java.util.Comparator;
+
+/**
+ * The orders a Trunk can try its suitcases in. Each puts the suitcases with the biggest of something first, and breaks
+ * ties by the biggest area. That doesn't keep suitcases the same size together: by AREA a 2x3 and a 3x2 can have a 1x6
+ * between them, so anything looking for suitcases the same size has to look past the one before. Any other Comparator
+ * can be used as the order too; these are just the ones that are known to do well.
+ *
+ * @author Kevin Becker
+ */
+public enum SuitcaseOrder implements Comparator<Suitcase>
+{
+    /** The biggest area first. */
+    AREA
+    {
+        @Override
+        int key(Suitcase suitcase)
+        {
+            return suitcase.getLength() * suitcase.getWidth();
+        }
+    },
+    /** The longest side first. */
+    LONGEST_SIDE
+    {
+        @Override
+        int key(Suitcase suitcase)
+        {
+            return Math.max(suitcase.getLength(), suitcase.getWidth());
+        }
+    },
+    /** The longest short side first. */
+    SHORTEST_SIDE
+    {
+        @Override
+        int key(Suitcase suitcase)
+        {
+            return Math.min(suitcase.getLength(), suitcase.getWidth());
+        }
+    },
+    /** The biggest perimeter first. */
+    PERIMETER
+    {
+        @Override
+        int key(Suitcase suitcase)
+        {
+            return 2 * (suitcase.getLength() + suitcase.getWidth());
+        }
+    };
+
+    /**
+     * Gets what the suitcases are ordered by.
+     *
+     * @param suitcase The suitcase.
+     *
+     * @return The number that puts the suitcase earlier the bigger it is.
+     */
+    abstract int key(Suitcase suitcase);
+
+    /**
+     * Compares two suitcases.
+     *
+     * @param s1 One suitcase.
+     * @param s2 The other suitcase.
+     *
+     * @return Below 0 if s1 goes first, above 0 if s2 goes first, and 0 if they are tied.
+     */
+    @Override
+    public int compare(Suitcase s1, Suitcase s2)
+    {
+        int byKey = Integer.compare(key(s2), key(s1));
+        return (byKey != 0) ? byKey : Integer.compare(AREA.key(s2), AREA.key(s1));
+    }
+}
@@ -1,5 +1,7 @@
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -13,12 +15,84 @@ public class Tests {
     public static final int MIN_LEN = 8;
     public static final int MIN_WID = 5;
     public static final String RANDOM_ARG_OPTION = "--random";
+    public static final String BITBOARD_ARG_OPTION = "--bitboard";
+    public static final String IN_PLACE_ARG_OPTION = "--inplace";
+    public static final String MEMO_ARG_OPTION = "--memo";
+    public static final String ANCHORED_ARG_OPTION = "--anchored";
+    public static final String CONSTRAINED_ARG_OPTION = "--constrained";
+    public static final String PRUNE_ARG_OPTION = "--prune";
+    public static final String FREE_SPACE_ARG_OPTION = "--freespace";
+    public static final String NO_EXACT_COVER_ARG_OPTION = "--nodlx";
+    public static final String NO_CHECK_ARG_OPTION = "--nocheck";
+    public static final String STATS_ARG_OPTION = "--stats";
+    public static final String ITERATIVE_ARG_OPTION = "--iterative";
+    public static final String CHECKPOINT_ARG_OPTION = "--checkpoint";
+    public static final long CHECKPOINT_INTERVAL = 100_000;
+    public static final String BEST_ARG_OPTION = "--best";
+    public static final long BEST_MILLIS = 10_000;
+    public static final String COUNT_ARG_OPTION = "--count";
+    public static final String CACHE_ARG_OPTION = "--cache";
+    public static final int CACHE_CAPACITY = 10_000;
+    public static final String GREEDY_ARG_OPTION = "--greedy";
+    public static final String PORTFOLIO_ARG_OPTION = "--portfolio";
+    public static final String TRACE_ARG_OPTION = "--trace";
+    public static final String TRACE_EVERY_ARG_OPTION = "--trace-every";
+    public static final String TRACE_DEPTH_ARG_OPTION = "--trace-depth";
+    public static final long MEMO_BYTES = 64L * 1024 * 1024;
     private static String LS = System.lineSeparator();
     private static int MSEC_PER_SEC = 1000;
+    private static TrunkOptions options = new TrunkOptions();
+    private static boolean inPlace = false;
+    private static boolean exactCover = true;
+    private static TranspositionTable table = null;
+    private static SearchMetrics metrics = null;
+    private static IterativeBacktracker iterative = null;
+    private static BestPackingSolver.Objective best = null;
+    private static boolean countAll = false;
+    private static SolutionCache cache = null;
+    private static GreedyPacker greedy = null;
+    private static PortfolioSolver portfolio = null;
+    private static boolean feasibilityCheck = true;
+    private static TraceWriter trace = null;
+    private static long traceEvery = 1;
+    private static int traceDepth = Integer.MAX_VALUE;
 
     /**
      * Choose which kind of test to run based on command line arguments.
      * @param args <br>
+     *             Any of the below may be preceded by any of
+     *             <code>--bitboard</code> to store trunks as bitboards,
+     *             <code>--inplace</code> to search one trunk in place,
+     *             <code>--memo</code> to remember failed trunks,
+     *             <code>--anchored</code> to branch on the first empty
+     *             cell, <code>--constrained</code> to branch on the
+     *             suitcase with the fewest places it fits,
+     *             <code>--prune</code> to prune by free area
+     *             and dead regions, <code>--freespace</code> to keep
+     *             an index of the empty rectangles of each trunk,
+     *             <code>--nodlx</code> to backtrack
+     *             even when the suitcases exactly fill the trunk,
+     *             <code>--nocheck</code> to search even when a quick
+     *             check shows there is no solution,
+     *             <code>--stats</code> to count what each search does,
+     *             <code>--iterative</code> to search with an explicit
+     *             stack, <code>--checkpoint file</code> to search
+     *             in place with an explicit stack, checkpointed to (and
+     *             resumed from) <i>file</i>,
+     *             <code>--best area|count</code> to look for the
+     *             packing with the most area or suitcases when there
+     *             is no solution, <code>--count</code> to also
+     *             count every solution, <code>--cache file</code>
+     *             to look answers up in (and add them to) the cache
+     *             stored in <i>file</i>, <code>--greedy</code> to
+     *             try a quick greedy packing before searching,
+     *             <code>--portfolio</code> to race several orders of
+     *             the suitcases on separate threads, and
+     *             <code>--trace file</code> to write each trunk the
+     *             backtracker looks at on one line of <i>file</i>, for
+     *             only every <i>n</i>th trunk with
+     *             <code>--trace-every n</code> and only down to depth
+     *             <i>k</i> with <code>--trace-depth k</code>.<br>
      *             <i><small>none</small></i> &rArr; Run 3 fixed tests.<br>
      *             <code>--random n</code> &rArr; Generate a random test of size
      *             at most <code>n</code>&times;<code>n</code>.<br>
@@ -26,7 +100,116 @@ public class Tests {
      *             <i>fileName</i>.
      */
     public static void main( String[] args ) {
-        Backtracker solver = new Backtracker( false );
+        Backtracker backtracker = new Backtracker( false );
+        for ( boolean option = true; option && args.length > 0; ) {
+            if ( args[ 0 ].equals( BITBOARD_ARG_OPTION ) ) {
+                options.setGridType( Trunk.GridType.BITBOARD );
+            }
+            else if ( args[ 0 ].equals( IN_PLACE_ARG_OPTION ) ) {
+                inPlace = true;
+            }
+            else if ( args[ 0 ].equals( ANCHORED_ARG_OPTION ) ) {
+                options.setBranching( Trunk.Branching.FIRST_EMPTY_CELL );
+            }
+            else if ( args[ 0 ].equals( CONSTRAINED_ARG_OPTION ) ) {
+                options.setBranching( Trunk.Branching.MOST_CONSTRAINED );
+            }
+            else if ( args[ 0 ].equals( NO_EXACT_COVER_ARG_OPTION ) ) {
+                exactCover = false;
+            }
+            else if ( args[ 0 ].equals( PRUNE_ARG_OPTION ) ) {
+                options.setAreaPruning( true ).setRegionPruning( true );
+            }
+            else if ( args[ 0 ].equals( NO_CHECK_ARG_OPTION ) ) {
+                feasibilityCheck = false;
+            }
+            else if ( args[ 0 ].equals( FREE_SPACE_ARG_OPTION ) ) {
+                options.setFreeSpaceIndex( true );
+            }
+            else if ( args[ 0 ].equals( MEMO_ARG_OPTION ) ) {
+                table = new TranspositionTable( MEMO_BYTES );
+                backtracker.setTranspositionTable( table );
+            }
+            else if ( args[ 0 ].equals( ITERATIVE_ARG_OPTION ) ) {
+                iterative = new IterativeBacktracker();
+            }
+            else if ( args[ 0 ].equals( CHECKPOINT_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                iterative = new IterativeBacktracker();
+                iterative.setCheckpoint(
+                        Paths.get( args[ 1 ] ), CHECKPOINT_INTERVAL );
+                inPlace = true;
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( BEST_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                best = BestPackingSolver.Objective.valueOf(
+                        args[ 1 ].toUpperCase() );
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( CACHE_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                cache = new SolutionCache(
+                        CACHE_CAPACITY, Paths.get( args[ 1 ] ) );
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( GREEDY_ARG_OPTION ) ) {
+                greedy = new GreedyPacker();
+            }
+            else if ( args[ 0 ].equals( PORTFOLIO_ARG_OPTION ) ) {
+                portfolio = new PortfolioSolver( options )
+                        .addStandardStrategies();
+            }
+            else if ( args[ 0 ].equals( TRACE_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                try {
+                    trace = new TraceWriter(
+                            Files.newBufferedWriter( Paths.get( args[ 1 ] ) ) );
+                }
+                catch( IOException e ) {
+                    System.err.println( "Problem: " + e );
+                    return;
+                }
+                backtracker.setTrace( trace );
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( TRACE_EVERY_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                traceEvery = Long.parseLong( args[ 1 ] );
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( TRACE_DEPTH_ARG_OPTION ) &&
+                      args.length > 1 ) {
+                traceDepth = Integer.parseInt( args[ 1 ] );
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+            else if ( args[ 0 ].equals( COUNT_ARG_OPTION ) ) {
+                countAll = true;
+            }
+            else if ( args[ 0 ].equals( STATS_ARG_OPTION ) ) {
+                metrics = new SearchMetrics();
+                backtracker.setSearchListener( metrics );
+            }
+            else {
+                option = false;
+            }
+            if ( option ) {
+                args = Arrays.copyOfRange( args, 1, args.length );
+            }
+        }
+        if ( iterative != null ) {
+            iterative.setSearchListener( metrics );
+        }
+        if ( trace != null ) {
+            trace.setEvery( traceEvery ).setMaxDepth( traceDepth );
+        }
+        TrunkSolver solver = new TrunkSolver( backtracker, options )
+                .setInPlace( inPlace ).setExactCover( exactCover )
+                .setIterative( iterative ).setCache( cache )
+                .setGreedy( greedy ).setPortfolio( portfolio );
+        if ( !feasibilityCheck ) {
+            solver.setFeasibilityCheck( null );
+        }
         try {
             if ( args.length == 2 && args[ 0 ].equals( RANDOM_ARG_OPTION ) ) {
                 final int dim = Integer.parseInt( args[ 1 ] );
@@ -52,6 +235,15 @@ public class Tests {
             System.err.println( "Problem: " + e );
             e.printStackTrace();
         }
+        if ( trace != null ) {
+            try {
+                trace.close();
+                System.out.println( "Trace: " + trace );
+            }
+            catch( IOException e ) {
+                System.err.println( "Problem writing the trace: " + e );
+            }
+        }
     }
 
     /**
@@ -79,13 +271,13 @@ public class Tests {
 
     /**
      * Run a single test of the Trunks backtracking solver
-     * @param solver an initialized Backtracker instance
-     * @param starting the initial, empty Trunk configuration
+     * @param solver an initialized TrunkSolver instance
+     * @param problem the problem instance to solve
      */
-    private static void oneTest( Backtracker solver, Trunk starting ) {
+    private static void oneTest( TrunkSolver solver, TrunkProblem problem ) {
         System.out.println( "SOLVING..." + LS );
         Instant begin = Instant.now();
-        Optional< Configuration > maybeSol = solver.solve( starting );
+        Optional< Configuration > maybeSol = solver.solve( problem );
         long execTime = Duration.between( begin, Instant.now() ).toMillis();
         if ( maybeSol.isPresent() ) {
             System.out.println( "YES!" );
@@ -93,6 +285,10 @@ public class Tests {
         }
         else {
             System.out.println( "NO :-(" );
+            if ( solver.getRejection() != null ) {
+                System.out.println( "Rejected before searching: " +
+                                    solver.getRejection().getDescription() );
+            }
         }
 
         System.out.println(
@@ -101,63 +297,112 @@ public class Tests {
                 '.' + ( execTime % MSEC_PER_SEC ) +
                 " seconds"
         );
+        if ( cache != null ) {
+            System.out.println( "Solution cache: " + cache );
+        }
+        if ( greedy != null ) {
+            System.out.println( "Greedy: " + greedy );
+        }
+        if ( portfolio != null ) {
+            System.out.println( "Portfolio: " + portfolio );
+        }
+        if ( countAll ) {
+            System.out.println( "Solutions: " + SolutionEnumerator.count(
+                    problem.toTrunk( options ) ) );
+        }
+        if ( best != null && !maybeSol.isPresent() ) {
+            bestPacking( problem );
+        }
+        if ( table != null ) {
+            System.out.println( "Transposition table: " + table );
+            table.clear();
+        }
+        if ( options.isAreaPruning() || options.isRegionPruning() ||
+             options.isFreeSpaceIndex() ) {
+            System.out.println( "Pruning: " + options.getPruningStats() );
+            options.getPruningStats().reset();
+        }
+        if ( metrics != null ) {
+            System.out.println( "Search: " + metrics );
+            metrics.reset();
+        }
 
         System.out.println();
     }
 
+    /**
+     * Look for the best packing of a problem with no solution, giving
+     * up after BEST_MILLIS with the best one found so far.
+     * @param problem the problem instance with no solution
+     */
+    private static void bestPacking( TrunkProblem problem ) {
+        BestPackingSolver solver = new BestPackingSolver(
+                problem.getLength(), problem.getWidth(),
+                problem.getCases(), best ).setTimeBudget( BEST_MILLIS );
+        Trunk packing = solver.solve( options );
+        System.out.println(
+                "Best packing by " + best.toString().toLowerCase() + ": " +
+                solver.getBestValue() +
+                ( solver.isOptimal() ? " (optimal)" : " (out of time)" ) );
+        packing.display();
+    }
+
     /**
      * Run a Trunks problem based on data from a file. The first line
      * in the file contains the length, then a space, then the width,
      * of the trunk. Each successive line contains the name (one character),
      * length, and width of a suitcase.
-     * @param solver an initialized Backtracker instance
+     * @param solver an initialized TrunkSolver instance
      * @param fileName the name of the file containing the problem instance
      *                 description
      * @throws FileNotFoundException if the file cannot be opened for reading
      */
-    private static void fromFile( Backtracker solver, String fileName )
+    private static void fromFile( TrunkSolver solver, String fileName )
             throws FileNotFoundException {
-        int trunkL;
-        int trunkW;
-        List< Suitcase > cases = new LinkedList<>();
-        try ( Scanner file = new Scanner( new File( fileName ) ) ) {
-            String[] dims = file.nextLine().split( "\\s+" );
-            trunkL = Integer.parseInt( dims[ 0 ] );
-            trunkW = Integer.parseInt( dims[ 1 ] );
-            while ( file.hasNextLine() ) {
-                String[] scParams = file.nextLine().split( "\\s+" );
-                cases.add( new Suitcase(
-                        scParams[ 0 ].charAt( 0 ),
-                        Integer.parseInt( scParams[ 1 ] ),
-                        Integer.parseInt( scParams[ 2 ] )
-                    )
-                );
-            }
-        }
-        testPreamble( cases, trunkL, trunkW );
-        oneTest( solver, new Trunk( trunkL, trunkW, cases ) );
+        TrunkProblem problem = TrunkProblem.read( fileName );
+        testPreamble(
+                problem.getCases(), problem.getLength(), problem.getWidth() );
+        oneTest( solver, problem );
     }
 
     /**
      * Run the three &quot;fixed&quot; tests stored in this class.
-     * @param solver an initialized Backtracker instance
+     * @param solver an initialized TrunkSolver instance
      */
-    private static void fixedTests( Backtracker solver ) {
+    private static void fixedTests( TrunkSolver solver ) {
 	// The line below generates an unchecked warning that can't be fixed.
-        for ( Supplier< Trunk > test: new Supplier[]{
+        for ( Supplier< TrunkProblem > test: new Supplier[]{
                 Tests::test1, Tests::test2, Tests::test3 } ) {
 
-            Trunk starting = test.get();
-            oneTest( solver, starting );
+            TrunkProblem problem = test.get();
+            oneTest( solver, problem );
         }
     }
 
+    /**
+     * The problem instances of the three &quot;fixed&quot; tests.
+     * @return the problems, in the order they are run
+     */
+    static List< TrunkProblem > fixedProblems() {
+        return Arrays.asList( problem1(), problem2(), problem3() );
+    }
+
     /**
      * A test with 5 suitcases that, if arranged properly,
      * will exactly fit in a 3&times;3 trunk. No rotations are needed.
-     * @return the correctly initialized Trunk configuration
+     * @return the correctly initialized problem instance
+     */
+    private static TrunkProblem test1() {
+        TrunkProblem problem = problem1();
+        testPreamble( problem.getCases(), 3, 3 );
+        return problem;
+    }
+
+    /**
+     * The problem instance run by {@link #test1()}.
+     * @return the trunk size and suitcases
      */
-    private static Trunk test1() {
+    static TrunkProblem problem1() {
         List< Suitcase > cases = Arrays.asList(
                 new Suitcase( 'A', 1, 3 ),
                 new Suitcase( 'B', 2, 1 ),
@@ -165,30 +410,48 @@ public class Tests {
                 new Suitcase( 'D', 1, 1 ),
                 new Suitcase( 'E', 1, 1 )
         );
-        testPreamble( cases, 3, 3 );
-        return new Trunk( 3, 3, cases );
+        return new TrunkProblem( 3, 3, cases );
     }
 
     /**
      * A test with 2 suitcases that, if arranged and rotated properly,
      * will exactly fit in a 4&times;2 trunk.
-     * @return the correctly initialized Trunk configuration
+     * @return the correctly initialized problem instance
      */
-    private static Trunk test2() {
+    private static TrunkProblem test2() {
+        TrunkProblem problem = problem2();
+        testPreamble( problem.getCases(), 4, 2 );
+        return problem;
+    }
+
+    /**
+     * The problem instance run by {@link #test2()}.
+     * @return the trunk size and suitcases
+     */
+    static TrunkProblem problem2() {
         List< Suitcase > cases = Arrays.asList(
                 new Suitcase( 'A', 1, 4 ),
                 new Suitcase( 'B', 1, 4 )
         );
-        testPreamble( cases, 4, 2 );
-        return new Trunk( 4, 2, cases );
+        return new TrunkProblem( 4, 2, cases );
     }
 
     /**
      * A test with 6 suitcases that cannot
      * fit into an 8&times;4 trunk no matter how the are arranged and rotated.
-     * @return the correctly initialized Trunk configuration
+     * @return the correctly initialized problem instance
      */
-    private static Trunk test3() {
+    private static TrunkProblem test3() {
+        TrunkProblem problem = problem3();
+        testPreamble( problem.getCases(), 8, 4 );
+        return problem;
+    }
+
+    /**
+     * The problem instance run by {@link #test3()}.
+     * @return the trunk size and suitcases
+     */
+    static TrunkProblem problem3() {
         List< Suitcase > cases = Arrays.asList(
                 new Suitcase( 'A', 1, 1 ),
                 new Suitcase( 'B', 2, 2 ),
@@ -197,8 +460,7 @@ public class Tests {
                 new Suitcase( 'E', MIN_LEN, 4 ),
                 new Suitcase( 'F', 1, 1 )
         );
-        testPreamble( cases, 8, 4 );
-        return new Trunk( 8, 4, cases );
+        return new TrunkProblem( 8, 4, cases );
     }
 
     /**
@@ -206,12 +468,32 @@ public class Tests {
      * The method is designed to always create a failing instance
      * because the combined footprints of the suitcases are more
      * than the area in the trunk/
-     * @param solver an initialized Backtracker instance
+     * @param solver an initialized TrunkSolver instance
+     * @param dim the maximum length and width
+     *            of the Trunk instance to be created
+     */
+    private static void random( TrunkSolver solver, int dim ) {
+        TrunkProblem problem = randomProblem( new Random(), dim );
+        int scArea = 0;
+        for ( Suitcase s : problem.getCases() ) {
+            scArea += s.getLength() * s.getWidth();
+        }
+        System.out.println( "Randomly chosen suitcases total area: " + scArea );
+        testPreamble(
+                problem.getCases(), problem.getLength(), problem.getWidth() );
+        oneTest( solver, problem );
+    }
+
+    /**
+     * Generate a random instance of the Trunk problem, as run by
+     * {@link #random(TrunkSolver, int)}. Passing a seeded
+     * <code>Random</code> gives the same instance every time.
+     * @param rnd the source of randomness
      * @param dim the maximum length and width
      *            of the Trunk instance to be created
+     * @return the problem instance
      */
-    private static void random( Backtracker solver, int dim ) {
-        Random rnd = new Random();
+    static TrunkProblem randomProblem( Random rnd, int dim ) {
         // Compute dimensions no less than 2. OW Messes up scL/scW computations.
         int trunkL = rnd.nextInt( dim - 2 ) + 2;
         int trunkW = rnd.nextInt( dim - 2 ) + 2;
@@ -227,8 +509,6 @@ public class Tests {
             scArea += area;
             name += 1;
         }
-        System.out.println( "Randomly chosen suitcases total area: " + scArea );
-        testPreamble( cases, trunkL, trunkW );
-        oneTest( solver, new Trunk( trunkL, trunkW, cases ) );
+        return new TrunkProblem( trunkL, trunkW, cases );
     }
 }
@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a trace of a search without making the search wait on the output. The search thread only renders each
+ * Configuration it traces into a buffer, and queues the buffer once it is full; a background thread writes the buffers
+ * out and hands them back. There are a fixed number of buffers, so once they are all queued the search waits for the
+ * writer instead of using up memory. A Trunk adds itself to the buffer straight from its occupancy, so tracing Trunks
+ * doesn't make any new objects once the buffers have grown to fit.
+ * Handing over a buffer at a time (instead of a Configuration at a time) keeps the two threads from having to take
+ * turns at the queue for every Configuration, which costs more than rendering one.
+ *
+ * Each Configuration can be written as its grid (the same as display()) or on one line (appendLine()), which is much
+ * quicker to make and to read back with other tools. Tracing can also be sampled: only every Nth Configuration, and
+ * only Configurations down to a given depth, are written.
+ *
+ * Give it to a Backtracker with setTrace(), and close it once the search is over to write out what is still queued.
+ *
+ * @author Kevin Becker
+ */
+public class TraceWriter implements AutoCloseable
+{
+    /**
+     * How many buffers there are when none is given.
+     */
+    public static final int DEFAULT_BUFFERS = 64;
+
+    /**
+     * How many chars a buffer holds before it is queued; it grows past this to fit the Configuration that fills it.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Queued after the last buffer to tell the writer to stop.
+     */
+    private static final StringBuilder END = new StringBuilder();
+
+    /**
+     * Where the trace is written.
+     */
+    private final Writer out;
+
+    /**
+     * The buffers ready to be traced into.
+     */
+    private final BlockingQueue<StringBuilder> free;
+
+    /**
+     * The buffers traced into, in order, waiting to be written.
+     */
+    private final BlockingQueue<StringBuilder> filled;
+
+    /**
+     * The buffer being traced into (null until one is needed).
+     */
+    private StringBuilder current;
+
+    /**
+     * The thread writing the buffers out.
+     */
+    private final Thread writer;
+
+    /**
+     * Only every this many Configurations is written.
+     */
+    private long every = 1;
+
+    /**
+     * Only Configurations at most this deep are written.
+     */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Are the Configurations written as grids (or on one line)?
+     */
+    private boolean grid = false;
+
+    /**
+     * How many Configurations have been traced, written or not.
+     */
+    private final AtomicLong traced = new AtomicLong();
+
+    /**
+     * How many Configurations have been written.
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * The first thing that went wrong writing (null if nothing has); after it, the buffers are only handed back.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Makes a TraceWriter with DEFAULT_BUFFERS buffers and starts its writer.
+     *
+     * @param out Where the trace is written; it is closed when this is.
+     */
+    public TraceWriter(Writer out)
+    {
+        this(out, DEFAULT_BUFFERS);
+    }
+
+    /**
+     * Makes a TraceWriter and starts its writer.
+     *
+     * @param out Where the trace is written; it is closed when this is.
+     * @param buffers How many buffers can be queued before the search waits for the writer.
+     */
+    public TraceWriter(Writer out, int buffers)
+    {
+        if(buffers < 1)
+            throw new IllegalArgumentException("A trace needs at least one buffer");
+
+        this.out = out;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for(int i = 0; i < buffers; ++i)
+            free.add(new StringBuilder(BUFFER_SIZE + BUFFER_SIZE / 4));
+
+        this.writer = new Thread(this::write, "trace writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Setter for the sampling by count.
+     *
+     * @param every Only every this many Configurations traced is written (1 for all of them).
+     *
+     * @return This TraceWriter.
+     */
+    public TraceWriter setEvery(long every)
+    {
+        if(every < 1)
+            throw new IllegalArgumentException("Can't write every " + every + "th configuration");
+        this.every = every;
+        return this;
+    }
+
+    /**
+     * Setter for the sampling by depth.
+     *
+     * @param maxDepth Only Configurations at most this many moves from the start are written.
+     *
+     * @return This TraceWriter.
+     */
+    public TraceWriter setMaxDepth(int maxDepth)
+    {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Setter for how Configurations are written.
+     *
+     * @param grid True to write each one as its grid, the same as display(); false to write each one on one line.
+     *
+     * @return This TraceWriter.
+     */
+    public TraceWriter setGrid(boolean grid)
+    {
+        this.grid = grid;
+        return this;
+    }
+
+    /**
+     * Traces a Configuration, if the sampling says to. This renders it straight away (so it can be changed as soon as
+     * this returns), and only waits if it needs a buffer and every buffer is still queued.
+     *
+     * @param message What is happening to the Configuration.
+     * @param config The Configuration.
+     * @param depth How many moves it is from the start.
+     */
+    public synchronized void trace(String message, Configuration config, int depth)
+    {
+        if(depth > maxDepth || traced.getAndIncrement() % every != 0)
+            return;
+
+        if(current == null)
+        {
+            try
+            {
+                current = free.take();
+            }
+            catch(InterruptedException e)
+            {
+                // the search keeps going without this Configuration
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        StringBuilder buffer = current;
+        if(grid)
+        {
+            buffer.append(message).append(':').append(System.lineSeparator());
+            config.appendGrid(buffer);
+        }
+        else
+        {
+            // the message's indent is left out (without strip(), which would make a new String)
+            int start = 0;
+            while(start < message.length() && Character.isWhitespace(message.charAt(start)))
+                ++start;
+            buffer.append(depth).append(' ').append(message, start, message.length()).append(": ");
+            config.appendLine(buffer);
+            buffer.append(System.lineSeparator());
+        }
+        written.incrementAndGet();
+        if(buffer.length() >= BUFFER_SIZE)
+            flush();
+    }
+
+    /**
+     * Queues what has been traced so far to be written, without waiting for it to be. Until the buffer being traced
+     * into fills up or this is called, the last Configurations traced haven't been written.
+     */
+    public synchronized void flush()
+    {
+        if(current != null && current.length() > 0)
+        {
+            filled.add(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Getter for the number of Configurations traced.
+     *
+     * @return How many trace() was called for, written or not.
+     */
+    public long getTraced()
+    {
+        return traced.get();
+    }
+
+    /**
+     * Getter for the number of Configurations written.
+     *
+     * @return How many trace() rendered to be written.
+     */
+    public long getWritten()
+    {
+        return written.get();
+    }
+
+    /**
+     * Writes out everything still queued, stops the writer and closes the output.
+     *
+     * @throws IOException if anything couldn't be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        filled.add(END);
+        try
+        {
+            writer.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if(failure != null)
+            throw failure;
+    }
+
+    /**
+     * Summarizes the counts.
+     *
+     * @return How many Configurations were written out of how many were traced.
+     */
+    @Override
+    public String toString()
+    {
+        return "wrote " + getWritten() + " of " + getTraced() + " traced";
+    }
+
+    /**
+     * The writer thread: writes each buffer and hands it back, flushing whenever it catches up with the search.
+     */
+    private void write()
+    {
+        try
+        {
+            for(StringBuilder buffer = filled.take(); buffer != END; buffer = filled.take())
+            {
+                output(buffer, filled.isEmpty());
+                buffer.setLength(0);
+                free.add(buffer);
+            }
+            output("", true);
+        }
+        catch(InterruptedException e)
+        {
+            // only close() waits for the writer, and it has given up
+        }
+    }
+
+    /**
+     * Writes some text out, unless something has already gone wrong writing.
+     *
+     * @param text The text.
+     * @param flush True to flush the output after it.
+     */
+    private void output(CharSequence text, boolean flush)
+    {
+        if(failure != null)
+            return;
+        try
+        {
+            out.append(text);
+            if(flush)
+                out.flush();
+        }
+        catch(IOException e)
+        {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * A bounded table of configuration keys which are known to have no
+ * solution. It is two-way set associative: each key can go in one of
+ * two slots of its bucket. When both slots are taken the deeper entry
+ * is evicted, since a shallower configuration stands for a bigger
+ * subtree and so saves more work when it is hit again.
+ *
+ * One table can be shared by searches on several threads.
+ *
+ * @author Kevin Becker
+ */
+public class TranspositionTable {
+    /**
+     * How many bytes one slot takes up (its key and its depth).
+     */
+    private static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES;
+
+    /**
+     * How many slots are in a bucket.
+     */
+    private static final int WAYS = 2;
+
+    /*
+     * The keys in the table; 0 means the slot is empty
+     */
+    private final long[] keys;
+
+    /*
+     * How deep in the search each key was found
+     */
+    private final int[] depths;
+
+    /*
+     * The number of buckets minus one (the number of buckets is a power
+     * of two)
+     */
+    private final int bucketMask;
+
+    /*
+     * Statistics
+     */
+    private long hits;
+    private long misses;
+    private long stores;
+    private long evictions;
+
+    /**
+     * Make an empty table which uses at most a given amount of memory.
+     *
+     * @param maxBytes The most memory the table may use, in bytes
+     */
+    public TranspositionTable( long maxBytes ) {
+        long buckets = Long.highestOneBit(
+                Math.max( 1, maxBytes / ( BYTES_PER_SLOT * WAYS ) ) );
+        // arrays can only hold so much
+        buckets = Math.min( buckets, 1 << 29 );
+        this.bucketMask = (int)buckets - 1;
+        this.keys = new long[ (int)buckets * WAYS ];
+        this.depths = new int[ (int)buckets * WAYS ];
+    }
+
+    /**
+     * Look up whether a configuration is known to fail.
+     *
+     * @param key The configuration's key
+     * @return true if the key was recorded as a failure
+     */
+    public synchronized boolean isKnownFailure( long key ) {
+        int slot = firstSlot( key );
+        for ( int i = slot; i < slot + WAYS; ++i ) {
+            if ( key != 0 && this.keys[ i ] == key ) {
+                ++this.hits;
+                return true;
+            }
+        }
+        ++this.misses;
+        return false;
+    }
+
+    /**
+     * Record that a configuration has no solution.
+     *
+     * @param key   The configuration's key
+     * @param depth How deep in the search the configuration is;
+     *              shallower entries are kept over deeper ones
+     */
+    public synchronized void recordFailure( long key, int depth ) {
+        if ( key == 0 ) {
+            // 0 marks an empty slot, so it can't be stored
+            return;
+        }
+        int slot = firstSlot( key );
+        int victim = slot;
+        for ( int i = slot; i < slot + WAYS; ++i ) {
+            if ( this.keys[ i ] == 0 || this.keys[ i ] == key ) {
+                victim = i;
+                break;
+            }
+            if ( this.depths[ i ] > this.depths[ victim ] ) {
+                victim = i;
+            }
+        }
+        if ( this.keys[ victim ] != 0 && this.keys[ victim ] != key ) {
+            ++this.evictions;
+        }
+        this.keys[ victim ] = key;
+        this.depths[ victim ] = depth;
+        ++this.stores;
+    }
+
+    /**
+     * Forget every entry (the statistics are kept).
+     */
+    public synchronized void clear() {
+        Arrays.fill( this.keys, 0 );
+    }
+
+    /**
+     * Find the first slot of the bucket a key goes in.
+     *
+     * @param key The key
+     * @return The index of the bucket's first slot
+     */
+    private int firstSlot( long key ) {
+        // folds the high half in so keys that only differ up there
+        // still spread out
+        return (int)( ( key ^ ( key >>> 32 ) ) & this.bucketMask ) * WAYS;
+    }
+
+    /**
+     * How many lookups found a known failure?
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() { return this.hits; }
+
+    /**
+     * How many lookups did not find a known failure?
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() { return this.misses; }
+
+    /**
+     * How many failures have been recorded?
+     *
+     * @return the number of stores
+     */
+    public synchronized long getStores() { return this.stores; }
+
+    /**
+     * How many recorded failures were pushed out to make room?
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() { return this.evictions; }
+
+    /**
+     * How many entries the table can hold at once.
+     *
+     * @return the number of slots
+     */
+    public int getCapacity() { return this.keys.length; }
+
+    /**
+     * Summarize the statistics.
+     *
+     * @return hits, misses, stores and evictions
+     */
+    @Override
+    public synchronized String toString() {
+        return "hits " + this.hits + ", misses " + this.misses +
+               ", stores " + this.stores + ", evictions " + this.evictions +
+               " (" + this.keys.length + " slots)";
+    }
+}
@@ -1,14 +1,14 @@
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 /**
  * The Trunk is a place to store our Suitcases. It has one major purpose: to determine the ways each suitcase can
  * fit inside of it.
  */
-public class Trunk implements Configuration
+public class Trunk implements MutableConfiguration, KeyedConfiguration
 {
     /**
      * The length of the Trunk.
@@ -21,14 +21,149 @@ public class Trunk implements Configuration
     private int width;
 
     /**
-     * The List of suitcases that are to be added to the Trunk.
+     * Every suitcase, sorted once when the starting Trunk is made; shared by every Trunk made from it, and never
+     * changed.
      */
-    private List<Suitcase> toAdd;
+    private Suitcase[] cases;
 
     /**
-     * The "state" of the Trunk. A.K.A. a 2D char array which has each suitcase in its position.
+     * For each suitcase, the index in cases of the closest one before it which is the same size (either way around),
+     * or -1 if there isn't one; shared like cases.
      */
-    private char [][] trunkState;
+    private int[] sameSizeAs;
+
+    /**
+     * Which suitcases are still to be added to the Trunk: bit i (of word i / 64) is set while cases[i] is. Copying a
+     * Trunk only copies these words, not a list of the suitcases.
+     */
+    private long[] toAdd;
+
+    /**
+     * How many suitcases are still to be added.
+     */
+    private int left;
+
+    /**
+     * The indexes of the suitcases taken out of toAdd by apply(), most recent last, so that undo() can put them back.
+     */
+    private int[] applied;
+
+    /**
+     * How many of applied are used.
+     */
+    private int appliedCount;
+
+    /**
+     * How the Trunk is stored and searched; shared by every Trunk made from the same starting Trunk.
+     */
+    private TrunkOptions options;
+
+    /**
+     * The "state" of the Trunk. A.K.A. which spots each suitcase has taken up.
+     */
+    private Occupancy trunkState;
+
+    /**
+     * The maximal empty rectangles of the Trunk, if the options say to keep them (null otherwise).
+     */
+    private FreeSpaceIndex freeSpace;
+
+    /**
+     * The keys used to hash the state; shared by every Trunk made from the same starting Trunk.
+     */
+    private ZobristKeys zobrist;
+
+    /**
+     * The Zobrist key of the cells that are taken up.
+     */
+    private long occupancyKey;
+
+    /**
+     * The sum of the keys of the suitcases not yet placed.
+     */
+    private long remainingKey;
+
+    /**
+     * For FIRST_EMPTY_CELL branching: every cell before this one (going across the rows) is taken up or was skipped.
+     */
+    private int anchor;
+
+    /**
+     * How many more cells can be left empty and still leave room for every suitcase in toAdd. Placing a suitcase
+     * doesn't change it; only skipping a cell (in FIRST_EMPTY_CELL branching) does. Below 0 means the suitcases
+     * can't all fit.
+     */
+    private int slack;
+
+    /**
+     * For FIRST_EMPTY_CELL branching: how many moves there are per cell (every starting suitcase both ways around,
+     * then skipping the cell).
+     */
+    private int stride;
+
+    /**
+     * When the options have an objective: how many suitcases (from the start of cases) have been decided on, either
+     * put in or left out. The ones left out stay in toAdd.
+     */
+    private int decided;
+
+    /**
+     * For MOST_CONSTRAINED branching: the moves planned for the Trunk with each number of suitcases left, in the
+     * order they are tried (each in the low 32 bits, with how well it fits above them to sort by), and how many there
+     * are (-1 if the plan isn't for the Trunk as it is now). Made when they are first needed and reused after that, so
+     * searching in place doesn't make new ones; never shared with a copy.
+     */
+    private long[][] plans;
+    private int[] planSizes;
+
+    /**
+     * For MOST_CONSTRAINED branching: where in each plan the last move found was.
+     */
+    private int[] planCursors;
+
+    /**
+     * The ways the state of the Trunk can be stored.
+     */
+    public enum GridType
+    {
+        /** A 2D char array which has each suitcase in its position. */
+        CHARS,
+        /** Each row as bits of longs, with the suitcase names kept separately. */
+        BITBOARD;
+
+        /**
+         * Makes an empty grid of this type.
+         *
+         * @param length The length (x) of the grid.
+         * @param width The width (y) of the grid.
+         *
+         * @return A new Occupancy with nothing in it.
+         */
+        Occupancy create(int length, int width)
+        {
+            return switch(this)
+            {
+                case CHARS -> new CharOccupancy(length, width);
+                case BITBOARD -> new BitboardOccupancy(length, width);
+            };
+        }
+    }
+
+    /**
+     * The ways the successors of a Trunk can be chosen.
+     */
+    public enum Branching
+    {
+        /** The next suitcase in toAdd, at every position it fits. */
+        NEXT_SUITCASE,
+        /** Every suitcase in toAdd (and leaving it empty), at the first empty cell going across the rows. */
+        FIRST_EMPTY_CELL,
+        /**
+         * The suitcase in toAdd with the fewest places it fits, at each of them, corners and edges first. A Trunk
+         * where some suitcase doesn't fit anywhere has no successors.
+         */
+        MOST_CONSTRAINED
+    }
 
     /**
      * Constructs a new Trunk based on the length and width given as well as the list of Suitcase objects that we want
@@ -40,116 +175,777 @@ public class Trunk implements Configuration
      */
     Trunk(int length, int width, List<Suitcase> toAdd)
     {
+        this(length, width, toAdd, GridType.CHARS);
+    }
+
+    /**
+     * Constructs a new Trunk based on the length and width given as well as the list of Suitcase objects that we want
+     * to put in, storing its state in the way given.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param toAdd The List of Suitcases to add to the Trunk.
+     * @param gridType How the state of the Trunk should be stored.
+     */
+    Trunk(int length, int width, List<Suitcase> toAdd, GridType gridType)
+    {
+        this(length, width, toAdd, new TrunkOptions().setGridType(gridType));
+    }
+
+    /**
+     * Constructs a new Trunk based on the length and width given as well as the list of Suitcase objects that we want
+     * to put in, stored and searched the ways given.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param toAdd The List of Suitcases to add to the Trunk.
+     * @param options How the Trunk should be stored and searched.
+     *
+     * @throws IllegalArgumentException if the options have an objective but not NEXT_SUITCASE branching
+     */
+    Trunk(int length, int width, List<Suitcase> toAdd, TrunkOptions options)
+    {
+        if(options.getObjective() != null && options.getBranching() != Branching.NEXT_SUITCASE)
+            throw new IllegalArgumentException("Only NEXT_SUITCASE branching can leave suitcases out");
+
         // length = x / column
         this.length = length;
 
         // width = y / row
         this.width = width;
 
-        // sorts the list (only really need this once)
-        toAdd.sort((s1, s2) -> (s2.getLength() * s2.getWidth()) -  (s1.getLength() * s1.getWidth()));
+        // sorts the list (only really need this once); biggest first unless the options say otherwise
+        toAdd.sort(options.getOrder());
 
-        // the ones we want to add are in toAdd
-        this.toAdd = new ArrayList<>( toAdd );
+        // every Trunk searched from this one shares the sorted suitcases, and only keeps which of them are left
+        this.cases = toAdd.toArray(new Suitcase[0]);
+        this.sameSizeAs = sameSizeAs(cases);
+        this.toAdd = new long[(cases.length + 63) / 64];
+        for(int i = 0; i < cases.length; ++i)
+            this.toAdd[i >> 6] |= 1L << i;
+        this.left = cases.length;
 
-        // trunkState char array of y by x
-        this.trunkState = new char[width][length];
+        this.options = options;
+
+        // trunkState of y by x
+        this.trunkState = options.getGridType().create(length, width);
+        this.freeSpace = options.isFreeSpaceIndex() ? new FreeSpaceIndex(length, width) : null;
+
+        // nothing is placed yet, so only the suitcases go in the key
+        this.zobrist = new ZobristKeys(length, width);
+        this.occupancyKey = 0;
+        this.remainingKey = 0;
+        for(Suitcase suitcase : this.cases)
+            this.remainingKey += ZobristKeys.suitcase(suitcase);
+
+        // every cell is still to be decided, and the room left over is all there is to skip
+        this.anchor = 0;
+        this.slack = length * width;
+        for(Suitcase suitcase : this.cases)
+            this.slack -= suitcase.getLength() * suitcase.getWidth();
+        this.stride = 2 * this.cases.length + 1;
     }
 
     private Trunk(Trunk toCopy)
     {
+        this.length = toCopy.getLength();
+        this.width = toCopy.getWidth();
+
+        // the suitcases are shared, so moves mean the same thing in the copy; only which are left is copied
+        this.cases = toCopy.cases;
+        this.sameSizeAs = toCopy.sameSizeAs;
+        this.toAdd = toCopy.toAdd.clone();
+        this.left = toCopy.left;
+
+        // sets our new state (it will be changed later); copied directly so the Trunk keeps the same kind of state
+        this.trunkState = toCopy.trunkState.copy();
+        this.freeSpace = (toCopy.freeSpace == null) ? null : toCopy.freeSpace.copy();
+
+        this.zobrist = toCopy.zobrist;
+        this.occupancyKey = toCopy.occupancyKey;
+        this.remainingKey = toCopy.remainingKey;
+
+        this.options = toCopy.options;
+        this.anchor = toCopy.anchor;
+        this.slack = toCopy.slack;
+        this.stride = toCopy.stride;
+        this.decided = toCopy.decided;
+    }
+
+    /**
+     * A method which returns an Iterable over all of the successors to the current Configuration. The successors are
+     * lazy: the next move is only looked for, and its copy of the Trunk only made, when the Iterator is asked for it.
+     *
+     * @return An Iterable of Trunk Configurations that are successors to the current Configuration.
+     */
+    @Override
+    public Iterable<Configuration> getSuccessors()
+    {
+        // each time it is iterated it starts back at the first move
+        return SuccessorIterator::new;
+    }
+
+    /**
+     * Walks through the successors of a Trunk one at a time, in the same order as nextMove().
+     */
+    private class SuccessorIterator implements Iterator<Configuration>
+    {
+        /**
+         * The move the next successor will be made from, or NO_MOVE once there aren't any more.
+         */
+        private int move;
+
+        /**
+         * Makes a new SuccessorIterator and finds the first move.
+         */
+        private SuccessorIterator()
+        {
+            this.move = nextMove(NO_MOVE);
+        }
+
+        /**
+         * Is there another move?
+         *
+         * @return True if there is another successor; false otherwise.
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return move != NO_MOVE;
+        }
 
-        // performs the constructor other constructor using the given trunk
-        this( toCopy.getLength(), toCopy.getWidth(), new ArrayList<>( toCopy.getNotYetAdded()) );
+        /**
+         * Makes the copy of the Trunk for the current move, then looks for the one after it.
+         *
+         * @return The next successor.
+         */
+        @Override
+        public Configuration next()
+        {
+            if(move == NO_MOVE)
+                throw new NoSuchElementException();
+
+            Trunk successor = generateCopyTrunk(move);
+            move = nextMove(move);
+            return successor;
+        }
+    }
 
-        // sets our new state (it will be changed later)
-        for(int i = 0; i < this.width; i++)
-            System.arraycopy(toCopy.trunkState[i], 0, this.trunkState[i],0, toCopy.trunkState[i].length);
+    /**
+     * Describes what the moves of this Trunk mean: the branching and how the state is stored, then the size of each
+     * suitcase in the order they were sorted into, since moves find suitcases by where they are in that order.
+     *
+     * @return The branching, the grid type and the sorted suitcases' sizes, e.g. "NEXT_SUITCASE CHARS 3x2 2x2".
+     */
+    @Override
+    public String describeMoves()
+    {
+        StringBuilder description = new StringBuilder();
+        description.append(options.getBranching()).append(' ').append(options.getGridType());
+        if(options.getObjective() != null)
+            description.append(' ').append(options.getObjective());
+        for(Suitcase suitcase : cases)
+            description.append(' ').append(suitcase.getLength()).append('x').append(suitcase.getWidth());
+        return description.toString();
     }
 
     /**
-     * A method which returns a Collection that contains all of the successors to the current Configuration using the
-     * next suitcase in toAdd.
+     * Finds the next move from this Trunk, in the same order getSuccessors() makes them.
+     *
+     * For NEXT_SUITCASE branching a move is the cell index (row * length + col) times two, plus one if the next
+     * suitcase is turned. For FIRST_EMPTY_CELL branching it is the first empty cell's index times stride, plus the
+     * suitcase's index in cases times two, plus one if it is turned; or plus stride - 1 to leave the cell empty. For
+     * MOST_CONSTRAINED branching it is the suitcase's index in cases times the number of cells, plus the cell index,
+     * all times two, plus one if it is turned. With an objective, the moves are the NEXT_SUITCASE ones for the next
+     * suitcase to decide on, then twice the number of cells to leave it out.
      *
-     * @return A Collection of Trunk Configuration that are successors to the current Configuration.
+     * @param previous The last move looked at, or NO_MOVE to find the first one.
+     *
+     * @return The next move that fits, or NO_MOVE if there aren't any more.
      */
     @Override
-    public Collection<Configuration> getSuccessors()
+    public int nextMove(int previous)
+    {
+        if(options.getObjective() != null)
+            return nextPackingMove(previous);
+        if(options.getBranching() == Branching.FIRST_EMPTY_CELL)
+            return nextAnchoredMove(previous);
+        if(options.getBranching() == Branching.MOST_CONSTRAINED)
+            return nextConstrainedMove(previous);
+        return nextPlacement(previous, cases[nextToAdd(0)]);
+    }
+
+    /**
+     * Finds the next place a suitcase fits, for NEXT_SUITCASE branching.
+     *
+     * @param previous The last move looked at (a place for the same suitcase), or NO_MOVE to find the first one.
+     * @param nextCase The suitcase.
+     *
+     * @return The next move that fits, or NO_MOVE if there aren't any more.
+     */
+    private int nextPlacement(int previous, Suitcase nextCase)
+    {
+        // the next move not turned is at a later cell; the next move turned can be at the same cell if previous
+        // wasn't turned
+        int fromCell = 0;
+        int fromTurnedCell = 0;
+        if(previous != NO_MOVE)
+        {
+            fromCell = (previous >> 1) + 1;
+            fromTurnedCell = ((previous & 1) == 0) ? previous >> 1 : fromCell;
+        }
+
+        // asks the occupancy for the next cell each way around fits at, then takes whichever move comes first
+        int notTurned = (fromCell < length * width) ? nextOpen(fromCell, nextCase) : -1;
+
+        // a square suitcase turned is the same as not turned so it is skipped
+        int turned = (nextCase.isSquare() || fromTurnedCell >= length * width) ? -1 :
+                nextOpen(fromTurnedCell, nextCase.turned());
+
+        if(notTurned < 0 && turned < 0)
+            return NO_MOVE;
+        if(turned < 0 || notTurned >= 0 && notTurned * 2 < turned * 2 + 1)
+            return notTurned * 2;
+        return turned * 2 + 1;
+    }
+
+    /**
+     * Finds the next way to decide on the next suitcase when packings are scored: each place it fits, then leaving it
+     * out.
+     *
+     * @param previous The last move looked at, or NO_MOVE to find the first one.
+     *
+     * @return The next move, or NO_MOVE if there aren't any more.
+     */
+    private int nextPackingMove(int previous)
+    {
+        int leaveOut = 2 * length * width;
+        if(decided == cases.length || previous == leaveOut)
+            return NO_MOVE;
+
+        // putting in a suitcase after leaving out one the same size would only repeat a packing, so the ones put in
+        // are always the first of those the same size, and only the closest one before matters
+        int before = sameSizeAs[decided];
+        if(before < 0 || !isToAdd(before))
+        {
+            int move = nextPlacement(previous, cases[decided]);
+            if(move != NO_MOVE)
+                return move;
+        }
+        return leaveOut;
+    }
+
+    /**
+     * Finds the next suitcase (or leaving it empty) that can go at the first empty cell.
+     *
+     * @param previous The last move looked at, or NO_MOVE to find the first one.
+     *
+     * @return The next move that fits, or NO_MOVE if there aren't any more.
+     */
+    private int nextAnchoredMove(int previous)
+    {
+        int cell = firstEmptyCell();
+
+        // if every cell is taken there's nowhere for the rest of the suitcases
+        if(cell < 0)
+            return NO_MOVE;
+
+        int row = cell / length;
+        int col = cell % length;
+        for(int choice = (previous == NO_MOVE) ? 0 : previous % stride + 1; choice < stride; ++choice)
+        {
+            int index = choice >> 1;
+
+            // the last choice is leaving the cell empty, which only works if there is room to spare
+            if(choice == stride - 1)
+                return (slack > 0) ? cell * stride + stride - 1 : NO_MOVE;
+
+            // the suitcases already in don't have moves, so this skips to the next one left
+            if(!isToAdd(index))
+            {
+                int next = nextToAdd(index + 1);
+                choice = ((next < 0) ? stride - 1 : 2 * next) - 1;
+                continue;
+            }
+
+            Suitcase nextCase = cases[index];
+
+            // a square suitcase turned, or one the same size as a suitcase already tried, would only repeat a move
+            if((choice & 1) == 1 && nextCase.isSquare() || sameSizeBefore(index))
+                continue;
+
+            if(trunkState.open(row, col, oriented(nextCase, choice)))
+                return cell * stride + choice;
+        }
+        // nothing else fits
+        return NO_MOVE;
+    }
+
+    /**
+     * Finds the next move in the plan for this Trunk, making the plan when the first move is asked for.
+     *
+     * @param previous The last move looked at, or NO_MOVE to find the first one.
+     *
+     * @return The next move in the plan, or NO_MOVE if there aren't any more.
+     */
+    private int nextConstrainedMove(int previous)
+    {
+        // a Trunk can be asked for moves with any number of suitcases left (e.g. when a search is resumed part of the
+        // way down), so there is room for a plan for each
+        if(plans == null)
+        {
+            plans = new long[cases.length + 1][];
+            planSizes = new int[cases.length + 1];
+            planCursors = new int[cases.length + 1];
+            Arrays.fill(planSizes, -1);
+        }
+
+        // a move applied since the plan was made means it is for another Trunk, so it is made again and previous is
+        // looked for in it
+        if(previous == NO_MOVE || planSizes[left] < 0)
+            plan(left);
+
+        int at;
+        if(previous == NO_MOVE)
+            at = 0;
+        else
+        {
+            // the cursor is almost always on previous already, unless moves were asked for out of order; a move which
+            // isn't in the plan has no moves after it
+            at = planCursors[left];
+            if(at >= planSizes[left] || (int) plans[left][at] != previous)
+            {
+                at = 0;
+                while(at < planSizes[left] && (int) plans[left][at] != previous)
+                    ++at;
+            }
+            ++at;
+        }
+
+        planCursors[left] = at;
+        return (at < planSizes[left]) ? (int) plans[left][at] : NO_MOVE;
+    }
+
+    /**
+     * Plans the moves for this Trunk: picks the suitcase in toAdd which fits in the fewest places, and orders the
+     * places it fits by how many of its sides are against a wall or other suitcases, most first. If some suitcase
+     * doesn't fit anywhere, nothing is planned.
+     *
+     * @param left How many suitcases are left, which is the plan to make.
+     */
+    private void plan(int left)
     {
-        // gathers the next case to check (removes it because once we've attempt to add it, we can consider it placed)
-        Suitcase nextCase = toAdd.remove(0);
+        planSizes[left] = 0;
+        if(left == 0)
+            return;
 
-        // turns it if we need to test a turned version
-        Suitcase nextCaseTurned = (!nextCase.isSquare()) ? nextCase.turned() : null;
+        // the suitcase with the fewest places; counting stops once it is no better than the fewest found
+        int fewest = Integer.MAX_VALUE;
+        int index = -1;
+        for(int i = nextToAdd(0); i >= 0; i = nextToAdd(i + 1))
+        {
+            if(sameSizeBefore(i))
+                continue;
 
-        // a iterable of Configurations
-        List<Configuration> successors = new ArrayList<>();
+            int count = countPlaces(cases[i], fewest);
+            if(count == 0)
+                return;
+            if(count < fewest)
+            {
+                fewest = count;
+                index = i;
+            }
+        }
 
-        // loops through every possible position for it to be in and adds the valid ones
-        // THE ROW IS WIDTH
-        for(int row = 0; row < trunkState.length; ++row)
+        if(plans[left] == null || plans[left].length < fewest)
+            plans[left] = new long[Math.max(fewest, 16)];
+        long[] plan = plans[left];
+        int size = 0;
+
+        Suitcase nextCase = cases[index];
+        int cells = length * width;
+        for(int turned = 0; turned < (nextCase.isSquare() ? 1 : 2); ++turned)
         {
-            // THE COL IS LENGTH
-            for(int col = 0; col < trunkState[row].length; ++col)
+            Suitcase oriented = (turned == 1) ? nextCase.turned() : nextCase;
+            for(int cell = nextOpen(0, oriented); cell >= 0; cell = nextOpen(cell + 1, oriented))
             {
-                // tests if the next case (regular) can fit and adds a new copy of trunk to successors if it can
-                if(open(row, col, nextCase))
-                    successors.add(generateCopyTrunk(row, col, nextCase));
+                int move = ((index * cells + cell) << 1) | turned;
 
-                // tests if the turned case a) exists and b) can fit and adds a new copy of trunk to successors if it can
-                if(nextCaseTurned != null && open(row, col, nextCaseTurned))
-                    successors.add(generateCopyTrunk(row, col, nextCaseTurned));
+                // more sides touching goes first, then the earlier move
+                plan[size++] = ((long) (4 - sidesTouching(cell / length, cell % length, oriented)) << 32) | move;
             }
         }
-        // returns all of our successors
-        return successors;
+        Arrays.sort(plan, 0, size);
+        planSizes[left] = size;
+    }
+
+    /**
+     * Counts the places a suitcase fits, either way around.
+     *
+     * @param suitcase The suitcase.
+     * @param limit The count to stop at.
+     *
+     * @return The number of places it fits, or limit if there are at least that many.
+     */
+    private int countPlaces(Suitcase suitcase, int limit)
+    {
+        int count = 0;
+        for(int turned = 0; turned < (suitcase.isSquare() ? 1 : 2); ++turned)
+        {
+            Suitcase oriented = (turned == 1) ? suitcase.turned() : suitcase;
+            for(int cell = nextOpen(0, oriented); cell >= 0 && count < limit; cell = nextOpen(cell + 1, oriented))
+                ++count;
+        }
+        return count;
     }
 
     /**
-     * Determines if a case can be fit in starting at startRow and startCol.
+     * Finds the first position at or after a cell where a suitcase fits, from the free space index if there is one.
      *
-     * @param startRow The starting row to check for fit.
-     * @param startCol The starting col to check for fit.
-     * @param suitcase The suitcase we are checking for fit.
+     * @param fromCell The index (row * length + col) of the first position to look at.
+     * @param suitcase The suitcase, the way around it would go in.
      *
-     * @return True if the case can fit; false otherwise.
+     * @return The index of the first position where it fits, or -1 if there isn't one.
      */
-    private boolean open(int startRow, int startCol, Suitcase suitcase)
+    private int nextOpen(int fromCell, Suitcase suitcase)
     {
-        // loops from startRow for width many times
-        for(int row = startRow; row < startRow + suitcase.getWidth(); ++row)
+        return (freeSpace != null) ? freeSpace.nextOpen(fromCell, suitcase) : trunkState.nextOpen(fromCell, suitcase);
+    }
+
+    /**
+     * Counts how many sides of a suitcase would be flat against a wall of the Trunk or against other suitcases.
+     *
+     * @param row The row of the top left corner of the suitcase.
+     * @param col The column of the top left corner of the suitcase.
+     * @param suitcase The suitcase, in the orientation it would go in.
+     *
+     * @return 0 to 4; a suitcase in a corner touches at least 2.
+     */
+    private int sidesTouching(int row, int col, Suitcase suitcase)
+    {
+        int bottom = row + suitcase.getWidth();
+        int right = col + suitcase.getLength();
+        boolean top = true;
+        boolean under = true;
+        for(int c = col; c < right; ++c)
+        {
+            top &= row == 0 || !trunkState.isEmpty(row - 1, c);
+            under &= bottom == width || !trunkState.isEmpty(bottom, c);
+        }
+        boolean left = true;
+        boolean beside = true;
+        for(int r = row; r < bottom; ++r)
+        {
+            left &= col == 0 || !trunkState.isEmpty(r, col - 1);
+            beside &= right == length || !trunkState.isEmpty(r, right);
+        }
+        return (top ? 1 : 0) + (under ? 1 : 0) + (left ? 1 : 0) + (beside ? 1 : 0);
+    }
+
+    /**
+     * Moves the anchor up to the first empty cell and returns it.
+     *
+     * @return The index (row * length + col) of the first empty cell at or after the anchor, or -1 if there isn't one.
+     */
+    private int firstEmptyCell()
+    {
+        // everything the anchor goes past is taken up, so moving it doesn't change what is left to decide
+        while(anchor < length * width && !trunkState.isEmpty(anchor / length, anchor % length))
+            ++anchor;
+        return (anchor < length * width) ? anchor : -1;
+    }
+
+    /**
+     * Is there a suitcase before index in toAdd which is the same size (either way around)?
+     *
+     * @param index The index in cases of the suitcase.
+     *
+     * @return True if there is one; false otherwise.
+     */
+    private boolean sameSizeBefore(int index)
+    {
+        for(int i = sameSizeAs[index]; i >= 0; i = sameSizeAs[i])
         {
-            // loops from startCol for length many times
-            for(int col = startCol; col < startCol + suitcase.getLength(); ++col)
+            if(isToAdd(i))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds, for each suitcase, the closest one before it which is the same size (either way around). Suitcases the
+     * same size needn't be next to each other once sorted (a 2x3 and a 3x2 can have a 1x6 between), so this links
+     * each to the one before it instead.
+     *
+     * @param cases The suitcases, in the order they are searched.
+     *
+     * @return For each suitcase, the index in cases of the closest one before it which is the same size, or -1 if
+     *         there isn't one.
+     */
+    static int[] sameSizeAs(Suitcase[] cases)
+    {
+        int[] sameSizeAs = new int[cases.length];
+        for(int i = 0; i < cases.length; ++i)
+        {
+            int before = i - 1;
+            while(before >= 0 && !cases[before].sameSize(cases[i]))
+                --before;
+            sameSizeAs[i] = before;
+        }
+        return sameSizeAs;
+    }
+
+    /**
+     * Is a suitcase still to be added?
+     *
+     * @param index The index in cases of the suitcase.
+     *
+     * @return True if it is in toAdd; false if it is in the Trunk.
+     */
+    private boolean isToAdd(int index)
+    {
+        return (toAdd[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Finds the first suitcase still to be added at or after an index.
+     *
+     * @param from The index in cases to start at.
+     *
+     * @return The index in cases of the suitcase, or -1 if there isn't one.
+     */
+    private int nextToAdd(int from)
+    {
+        int word = from >> 6;
+        if(word >= toAdd.length)
+            return -1;
+
+        // the bits before from are masked off, then each word after is looked at whole
+        long bits = toAdd[word] & (-1L << from);
+        while(bits == 0)
+        {
+            if(++word == toAdd.length)
+                return -1;
+            bits = toAdd[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Takes a suitcase out of toAdd.
+     *
+     * @param index The index in cases of the suitcase.
+     *
+     * @return The suitcase.
+     */
+    private Suitcase take(int index)
+    {
+        toAdd[index >> 6] &= ~(1L << index);
+        --left;
+        return cases[index];
+    }
+
+    /**
+     * Makes a move: takes its suitcase out of toAdd and fills its spaces, or for leaving a cell empty, moves the
+     * anchor past it.
+     *
+     * @param move A move returned by nextMove().
+     *
+     * @return The index in cases of the suitcase taken out of toAdd, or -1 if the move left a cell empty.
+     */
+    private int place(int move)
+    {
+        if(options.getObjective() != null)
+        {
+            int index = decided++;
+            if(move == 2 * length * width)
+                return -1;
+            int cell = move >> 1;
+            fillSpaces(cell / length, cell % length, oriented(take(index), move));
+            return index;
+        }
+        if(options.getBranching() == Branching.FIRST_EMPTY_CELL)
+        {
+            int cell = move / stride;
+            int choice = move % stride;
+            if(choice == stride - 1)
             {
-                /*
-                if we aren't over the length of the rows, or the width of the rows, and it is a blank char
-                we're okay
-                however if anything isn't true, we can't consider space open
-                 */
-                if (row >= trunkState.length || col >= trunkState[row].length || trunkState[row][col] != '\u0000')
-                    return false;
+                anchor = cell + 1;
+                --slack;
+                return -1;
             }
+            anchor = cell;
+            int index = choice >> 1;
+            fillSpaces(cell / length, cell % length, oriented(take(index), choice));
+            return index;
         }
-        // if we get here the space is open
-        return true;
+        if(options.getBranching() == Branching.MOST_CONSTRAINED)
+        {
+            int cell = (move >> 1) % (length * width);
+            int index = (move >> 1) / (length * width);
+            fillSpaces(cell / length, cell % length, oriented(take(index), move));
+            return index;
+        }
+
+        int index = nextToAdd(0);
+        int cell = move >> 1;
+        fillSpaces(cell / length, cell % length, oriented(take(index), move));
+        return index;
+    }
+
+    /**
+     * Puts a suitcase from toAdd into the Trunk as the move says, and takes it out of toAdd.
+     *
+     * @param move A move returned by nextMove().
+     */
+    @Override
+    public void apply(int move)
+    {
+        int index = place(move);
+
+        // remembers it so undo can put it back into toAdd
+        if(index >= 0)
+        {
+            if(applied == null)
+                applied = new int[left + 1];
+            applied[appliedCount++] = index;
+        }
+
+        // whatever was planned for this many suitcases left was for another Trunk
+        if(planSizes != null)
+            planSizes[left] = -1;
+    }
+
+    /**
+     * Takes the most recently applied suitcase back out of the Trunk and puts it back where it was in toAdd.
+     *
+     * @param move The move most recently applied.
+     */
+    @Override
+    public void undo(int move)
+    {
+        if(options.getObjective() != null)
+        {
+            --decided;
+
+            // a suitcase left out was never taken out of toAdd
+            if(move == 2 * length * width)
+                return;
+        }
+
+        int cell;
+        int choice;
+        if(options.getBranching() == Branching.FIRST_EMPTY_CELL)
+        {
+            cell = move / stride;
+            choice = move % stride;
+
+            // every cell before this one was decided when the move was made
+            anchor = cell;
+            if(choice == stride - 1)
+            {
+                ++slack;
+                return;
+            }
+        }
+        else if(options.getBranching() == Branching.MOST_CONSTRAINED)
+        {
+            cell = (move >> 1) % (length * width);
+            choice = move;
+        }
+        else
+        {
+            cell = move >> 1;
+            choice = move;
+        }
+
+        int index = applied[--appliedCount];
+        Suitcase lastCase = cases[index];
+        Suitcase oriented = oriented(lastCase, choice);
+        this.trunkState.clear(cell / length, cell % length, oriented);
+        if(freeSpace != null)
+            freeSpace.undo();
+        toAdd[index >> 6] |= 1L << index;
+        ++left;
+
+        // XOR undoes itself, and the suitcase is remaining again
+        this.occupancyKey ^= zobrist.cells(cell / length, cell % length, oriented);
+        this.remainingKey += ZobristKeys.suitcase(lastCase);
+    }
+
+    /**
+     * Gets the suitcase in the orientation a move uses.
+     *
+     * @param suitcase The suitcase as it is in cases.
+     * @param move The move (or for FIRST_EMPTY_CELL branching, the move's choice).
+     *
+     * @return The suitcase, turned if the move says it is turned.
+     */
+    private static Suitcase oriented(Suitcase suitcase, int move)
+    {
+        return ((move & 1) == 1) ? suitcase.turned() : suitcase;
     }
 
     /**
-     * Generates a new copy of the Trunk and adds in the Suitcase starting at the specified row and column.
+     * Puts a suitcase into the Trunk at a given position and takes it out of toAdd, for solvers that work out the
+     * whole packing some other way and want it as a Trunk.
      *
-     * @param row The row which the Suitcase should begin being placed at in trunkState.
-     * @param col The column which the Suitcase should begin being placed at in trunkState.
-     * @param suitcase The Suitcase we want to put into the trunkState.
+     * @param row The row of the top left corner of the suitcase.
+     * @param col The column of the top left corner of the suitcase.
+     * @param suitcase The suitcase, in the orientation it goes in (names are unique, so this can be turned).
+     */
+    void putSuitcase(int row, int col, Suitcase suitcase)
+    {
+        for(int i = nextToAdd(0); i >= 0; i = nextToAdd(i + 1))
+        {
+            if(cases[i].getName() == suitcase.getName() && cases[i].sameSize(suitcase))
+            {
+                take(i);
+                break;
+            }
+        }
+        fillSpaces(row, col, suitcase);
+    }
+
+    /**
+     * Gets the suitcases still to be added, for solvers that want to write a Trunk out part of the way through.
+     *
+     * @return The suitcases in toAdd, in order, in a new list.
+     */
+    List<Suitcase> remaining()
+    {
+        List<Suitcase> remaining = new ArrayList<>(left);
+        for(int i = nextToAdd(0); i >= 0; i = nextToAdd(i + 1))
+            remaining.add(cases[i]);
+        return remaining;
+    }
+
+    /**
+     * Gets where each suitcase in the Trunk is, for solvers that want to read a packing back out.
+     *
+     * @return A Placement for each suitcase in the Trunk (in the orientation it went in), in a new list.
+     */
+    List<Placement> placements()
+    {
+        List<Placement> placements = new ArrayList<>(cases.length - left);
+        for(Placement p = trunkState.placements(); p != null; p = p.getPrevious())
+            placements.add(p);
+        return placements;
+    }
+
+    /**
+     * Generates a new copy of the Trunk and makes a move in it.
      *
-     * @return A copy of the current Trunk with a new Suitcase put into it at the specified location.
+     * @param move A move returned by nextMove().
+     *
+     * @return A copy of the current Trunk with the move made in it.
      */
-    private Trunk generateCopyTrunk(int row, int col, Suitcase suitcase)
+    private Trunk generateCopyTrunk(int move)
     {
         // runs the copy constructor giving us a new Trunk with the same state as current version
         Trunk copyTrunk = new Trunk(this);
         // fills the spaces with the new suitcase
-        copyTrunk.fillSpaces(row, col, suitcase);
+        copyTrunk.place(move);
         // returns our new Trunk
         return copyTrunk;
     }
@@ -166,25 +962,13 @@ public class Trunk implements Configuration
     private void fillSpaces(int startRow, int startCol, Suitcase which)
     {
         // fills the space of the newly copied Trunk with the nextCase
-        for(int row = startRow; row < startRow + which.getWidth(); ++row)
-        {
-            for(int col = startCol; col < startCol + which.getLength(); ++col)
-            {
-                // sets the char at [row][col] to the Suitcase's name.
-                this.trunkState[row][col] = which.getName();
-            }
-        }
-    }
+        this.trunkState.fill(startRow, startCol, which);
+        if(freeSpace != null)
+            freeSpace.place(startRow, startCol, which);
 
-    /**
-     * Returns a set of the cases which are not yet added.
-     *
-     * @return The Suitcases which haven't been added yet.
-     */
-    private Set<Suitcase> getNotYetAdded()
-    {
-        // returns a new HashSet of the suitcases not added yet
-        return new HashSet<>(toAdd);
+        // keeps the key up to date: the cells are taken and the suitcase is no longer remaining
+        this.occupancyKey ^= zobrist.cells(startRow, startCol, which);
+        this.remainingKey -= ZobristKeys.suitcase(which);
     }
 
     /**
@@ -208,55 +992,362 @@ public class Trunk implements Configuration
     }
 
     /**
-     * This always returns true since we are only generating valid configurations.
+     * The getSuccessors() method only generates configurations where the suitcases fit, so this only says false when
+     * one of the pruning rules in the options is on and shows that the suitcases left can't all be fit in:
+     * <ul>
+     *     <li>area pruning: there is less free area than the suitcases left take up.</li>
+     *     <li>free space index: some suitcase left doesn't fit in any of the maximal empty rectangles.</li>
+     *     <li>region pruning: the empty regions which no suitcase left fits in add up to more than can be left
+     *     empty.</li>
+     * </ul>
+     *
+     * With an objective every Trunk is valid, since suitcases can be left out; getBound() does the cutting off.
      *
-     * @return True always because the getSuccessors() method only generates valid configurations.
+     * @return True if the configuration might still lead to a goal; false otherwise.
      */
     @Override
     public boolean isValid()
     {
+        if(options.getObjective() != null)
+            return true;
+
+        PruningStats stats = options.getPruningStats();
+        if(options.isAreaPruning())
+        {
+            boolean pruned = slack < 0;
+            stats.countArea(pruned);
+            if(pruned)
+                return false;
+        }
+        if(freeSpace != null && left > 0)
+        {
+            boolean pruned = !allFit();
+            stats.countFit(pruned);
+            if(pruned)
+                return false;
+        }
+        if(options.isRegionPruning() && left > 0)
+        {
+            boolean pruned = deadCells() > slack;
+            stats.countRegion(pruned);
+            if(pruned)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Does every suitcase left fit in one of the empty rectangles, one way or the other?
+     *
+     * @return True if each of them fits somewhere on its own; false if one of them fits nowhere.
+     */
+    private boolean allFit()
+    {
+        for(int index = nextToAdd(0); index >= 0; index = nextToAdd(index + 1))
+        {
+            if(!sameSizeBefore(index) && !freeSpace.fitsEitherWay(cases[index]))
+                return false;
+        }
         return true;
     }
 
     /**
-     * Returns if we are at goal or not.
+     * Flood fills the empty cells into regions, and counts the cells in the regions that none of the suitcases left
+     * can fit into. Cells skipped by FIRST_EMPTY_CELL branching are already counted against the slack, so they are
+     * left out.
+     *
+     * @return The number of empty cells which can never be filled, up to the first region that takes it past slack.
+     */
+    private int deadCells()
+    {
+        int cells = length * width;
+        FloodFill fill = FloodFill.get(cells);
+        // toAdd isn't always sorted by area, so the smallest one is looked for
+        int smallestArea = Integer.MAX_VALUE;
+        for(int index = nextToAdd(0); index >= 0; index = nextToAdd(index + 1))
+            smallestArea = Math.min(smallestArea, cases[index].getLength() * cases[index].getWidth());
+        int dead = 0;
+
+        for(int start = anchor; start < cells && dead <= slack; ++start)
+        {
+            if(fill.isSeen(start) || !trunkState.isEmpty(start / length, start % length))
+                continue;
+
+            // gathers every empty cell connected to start
+            int size = fill.region(this, start);
+
+            // a region smaller than every suitcase can't hold one; otherwise one has to actually fit
+            if(size < smallestArea || !anyFits(fill, size))
+                dead += size;
+        }
+        return dead;
+    }
+
+    /**
+     * Does any suitcase left fit inside of the region just flood filled? Since a suitcase can only go on empty cells,
+     * and they are all connected, one fits in the region if it fits with its corner on a cell of the region.
+     *
+     * @param fill The flood fill which just found the region.
+     * @param size The number of cells in the region.
+     *
+     * @return True if some suitcase left fits in the region; false otherwise.
+     */
+    private boolean anyFits(FloodFill fill, int size)
+    {
+        for(int index = nextToAdd(0); index >= 0; index = nextToAdd(index + 1))
+        {
+            Suitcase suitcase = cases[index];
+            if(suitcase.getLength() * suitcase.getWidth() > size || sameSizeBefore(index))
+                continue;
+
+            for(int i = 0; i < size; ++i)
+            {
+                int cell = fill.cellAt(i);
+                if(trunkState.open(cell / length, cell % length, suitcase) ||
+                        !suitcase.isSquare() && trunkState.open(cell / length, cell % length, suitcase.turned()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The working space for flood filling the empty cells of a Trunk. There is one per thread, reused from Trunk to
+     * Trunk so that checking the regions doesn't have to make new arrays.
+     */
+    private static class FloodFill
+    {
+        /**
+         * The FloodFill of each thread.
+         */
+        private static final ThreadLocal<FloodFill> FILLS = ThreadLocal.withInitial(FloodFill::new);
+
+        /**
+         * seen[cell] == pass when the cell has been put in a region on the current pass.
+         */
+        private int[] seen = new int[0];
+
+        /**
+         * The cells of the region found last, as a queue while it is being filled.
+         */
+        private int[] region = new int[0];
+
+        /**
+         * Which pass this is, so that seen never has to be cleared.
+         */
+        private int pass;
+
+        /**
+         * Gets this thread's FloodFill, ready to fill a Trunk.
+         *
+         * @param cells The number of cells in the Trunk.
+         *
+         * @return This thread's FloodFill.
+         */
+        private static FloodFill get(int cells)
+        {
+            FloodFill fill = FILLS.get();
+            if(fill.seen.length < cells)
+            {
+                fill.seen = new int[cells];
+                fill.region = new int[cells];
+                fill.pass = 0;
+            }
+            ++fill.pass;
+            return fill;
+        }
+
+        /**
+         * Has the cell been put in a region yet?
+         *
+         * @param cell The index of the cell.
+         *
+         * @return True if it has; false otherwise.
+         */
+        private boolean isSeen(int cell)
+        {
+            return seen[cell] == pass;
+        }
+
+        /**
+         * Gets a cell of the region found last.
+         *
+         * @param i Which cell of the region.
+         *
+         * @return The index of the cell.
+         */
+        private int cellAt(int i)
+        {
+            return region[i];
+        }
+
+        /**
+         * Finds the region of empty cells connected (up, down, left and right) to a cell.
+         *
+         * @param trunk The Trunk being filled.
+         * @param start The index of an empty cell.
+         *
+         * @return The number of cells in the region; they can be got with cellAt().
+         */
+        private int region(Trunk trunk, int start)
+        {
+            int size = 0;
+            seen[start] = pass;
+            region[size++] = start;
+            for(int head = 0; head < size; ++head)
+            {
+                int cell = region[head];
+                int row = cell / trunk.length;
+                int col = cell % trunk.length;
+                if(col > 0)
+                    size = visit(trunk, cell - 1, size);
+                if(col < trunk.length - 1)
+                    size = visit(trunk, cell + 1, size);
+                if(row > 0)
+                    size = visit(trunk, cell - trunk.length, size);
+                if(row < trunk.width - 1)
+                    size = visit(trunk, cell + trunk.length, size);
+            }
+            return size;
+        }
+
+        /**
+         * Adds a neighbouring cell to the region if it is empty and hasn't been seen.
+         *
+         * @param trunk The Trunk being filled.
+         * @param cell The index of the neighbouring cell.
+         * @param size The number of cells in the region so far.
+         *
+         * @return The number of cells in the region now.
+         */
+        private int visit(Trunk trunk, int cell, int size)
+        {
+            // cells before the anchor are already decided, even the empty ones
+            if(cell >= trunk.anchor && seen[cell] != pass && trunk.trunkState.isEmpty(cell / trunk.length,
+                    cell % trunk.length))
+            {
+                seen[cell] = pass;
+                region[size++] = cell;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Returns the key of the Trunk: which cells are taken up, and the sizes of the suitcases which are left. Names
+     * don't matter, so Trunks that only differ in which suitcase is where (among ones the same size) have the same key.
+     *
+     * @return The key of the current Trunk.
+     */
+    @Override
+    public long getKey()
+    {
+        // when branching on the first empty cell, the cells skipped before it are part of the state too
+        if(options.getBranching() == Branching.FIRST_EMPTY_CELL)
+            return occupancyKey ^ remainingKey ^ ZobristKeys.anchor(firstEmptyCell());
+
+        return occupancyKey ^ remainingKey;
+    }
+
+    /**
+     * Returns if we are at goal or not: every suitcase is in the Trunk, or with an objective, every suitcase has been
+     * decided on.
      *
      * @return True if we are at goal, false otherwise.
      */
     @Override
     public boolean isGoal()
     {
-        return toAdd.size() == 0;
+        return (options.getObjective() != null) ? decided == cases.length : left == 0;
     }
 
     /**
-     * Displays the current state of the Trunk to standard output.
+     * With an objective, works out the most a packing below this Trunk could score: what is in it, plus the
+     * suitcases still to be decided on which fit somewhere (and in the free area), but no more than the objective
+     * says the free cells could hold. At a goal this is the score of its packing.
+     *
+     * @return The bound, or Long.MAX_VALUE if there is no objective.
      */
     @Override
-    public void display()
+    public long getBound()
     {
-        // goes through each row of trunkState
-        for (char[] row : this.trunkState)
+        BestPackingSolver.Objective objective = options.getObjective();
+        if(objective == null)
+            return Long.MAX_VALUE;
+
+        long value = 0;
+        int free = length * width;
+        for(int i = 0; i < decided; ++i)
         {
-            // goes through each char in row
-            for (char nextChar : row)
+            if(!isToAdd(i))
             {
-                // if the spot in the trunkState is a "NUL" unicode character, we print a '-' indicating
-                // an empty location
-                // if it isn't empty, we print the char
-                System.out.print(((nextChar == '\u0000') ? '-' : nextChar) + " ");
+                value += objective.value(cases[i]);
+                free -= cases[i].getLength() * cases[i].getWidth();
             }
-            // prints a new line
-            System.out.println();
         }
 
+        long fitting = 0;
+        int smallest = Integer.MAX_VALUE;
+        for(int i = decided; i < cases.length; ++i)
+        {
+            int area = cases[i].getLength() * cases[i].getWidth();
+            if(area <= free && countPlaces(cases[i], 1) > 0)
+            {
+                fitting += objective.value(cases[i]);
+                smallest = Math.min(smallest, area);
+            }
+        }
+        return (fitting == 0) ? value : value + Math.min(fitting, objective.most(free, smallest));
+    }
+
+    /**
+     * Displays the current state of the Trunk to standard output.
+     */
+    @Override
+    public void display()
+    {
+        // built up first and printed at once, since printing a char at a time is slow
+        StringBuilder out = new StringBuilder();
+        appendGrid(out);
+        System.out.print(out);
+    }
+
+    /**
+     * Writes the same as display() into a buffer: the Trunk with '-' for empty cells, then each suitcase in toAdd.
+     *
+     * @param out The buffer to add to.
+     */
+    @Override
+    public void appendGrid(StringBuilder out)
+    {
+        // goes through each row of trunkState, with a '-' for each empty location
+        this.trunkState.appendGrid(out, '-');
+
         // goes through each suitcase in toAdd
-        for(Suitcase suitcase : toAdd)
+        for(int index = nextToAdd(0); index >= 0; index = nextToAdd(index + 1))
         {
             // displays each suitcase
-            suitcase.display();
-            // prints a new line
-            System.out.println();
+            cases[index].display(out);
+            // adds a new line
+            out.append(System.lineSeparator());
         }
     }
+
+    /**
+     * Writes the Trunk on one line: each suitcase in it as its name, the row and column of its top left corner, and
+     * its length and width the way around it went in (going across the rows by corner), then the names of the
+     * suitcases in toAdd. For example "A@0,0:3x2 B@0,3:2x2 | CD".
+     *
+     * @param out The buffer to add to.
+     */
+    @Override
+    public void appendLine(StringBuilder out)
+    {
+        trunkState.appendPlacements(out);
+        out.append('|');
+        if(left > 0)
+            out.append(' ');
+        for(int index = nextToAdd(0); index >= 0; index = nextToAdd(index + 1))
+            out.append(cases[index].getName());
+    }
 }
@@ -0,0 +1,264 @@
+import java.util.Comparator;
+
+/**
+ * The choices of how a Trunk is stored and searched. Every Trunk made from the same starting Trunk shares its
+ * TrunkOptions, so they shouldn't be changed once a search has started.
+ *
+ * @author Kevin Becker
+ */
+public class TrunkOptions
+{
+    /**
+     * How the state of the Trunk is stored.
+     */
+    private Trunk.GridType gridType = Trunk.GridType.CHARS;
+
+    /**
+     * How the successors of a Trunk are chosen.
+     */
+    private Trunk.Branching branching = Trunk.Branching.NEXT_SUITCASE;
+
+    /**
+     * The order the suitcases are tried in.
+     */
+    private Comparator<Suitcase> order = SuitcaseOrder.AREA;
+
+    /**
+     * Should Trunks without enough free area for the suitcases left be invalid?
+     */
+    private boolean areaPruning = false;
+
+    /**
+     * Should Trunks with empty regions that no suitcase left fits in (more than there is room to spare) be invalid?
+     */
+    private boolean regionPruning = false;
+
+    /**
+     * Should Trunks keep an index of their maximal empty rectangles, to find where suitcases fit and to make Trunks
+     * where a suitcase left fits nowhere invalid?
+     */
+    private boolean freeSpaceIndex = false;
+
+    /**
+     * What packings are scored on when not every suitcase has to go in (null if they all do).
+     */
+    private BestPackingSolver.Objective objective = null;
+
+    /**
+     * The counts of what the pruning rules cut off.
+     */
+    private final PruningStats pruningStats;
+
+    /**
+     * Makes the default options, with their own pruning counts.
+     */
+    public TrunkOptions()
+    {
+        this.pruningStats = new PruningStats();
+    }
+
+    /**
+     * Makes options the same as others, counting into the same pruning counts.
+     *
+     * @param toCopy The options to copy.
+     */
+    private TrunkOptions(TrunkOptions toCopy)
+    {
+        this.gridType = toCopy.gridType;
+        this.branching = toCopy.branching;
+        this.order = toCopy.order;
+        this.areaPruning = toCopy.areaPruning;
+        this.regionPruning = toCopy.regionPruning;
+        this.freeSpaceIndex = toCopy.freeSpaceIndex;
+        this.objective = toCopy.objective;
+        this.pruningStats = toCopy.pruningStats;
+    }
+
+    /**
+     * Copies these options, e.g. to change one of them for some Trunks only. The copy shares these options' pruning
+     * counts, so what the pruning rules cut off in Trunks made with either is counted together.
+     *
+     * @return The copy.
+     */
+    public TrunkOptions copy()
+    {
+        return new TrunkOptions(this);
+    }
+
+    /**
+     * Getter for the grid type.
+     *
+     * @return How the state of the Trunk is stored.
+     */
+    public Trunk.GridType getGridType()
+    {
+        return this.gridType;
+    }
+
+    /**
+     * Setter for the grid type.
+     *
+     * @param gridType How the state of the Trunk should be stored.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setGridType(Trunk.GridType gridType)
+    {
+        this.gridType = gridType;
+        return this;
+    }
+
+    /**
+     * Getter for the branching.
+     *
+     * @return How the successors of a Trunk are chosen.
+     */
+    public Trunk.Branching getBranching()
+    {
+        return this.branching;
+    }
+
+    /**
+     * Setter for the branching.
+     *
+     * @param branching How the successors of a Trunk should be chosen.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setBranching(Trunk.Branching branching)
+    {
+        this.branching = branching;
+        return this;
+    }
+
+    /**
+     * Getter for the order.
+     *
+     * @return The order the suitcases are tried in.
+     */
+    public Comparator<Suitcase> getOrder()
+    {
+        return this.order;
+    }
+
+    /**
+     * Setter for the order. The suitcases are sorted into it when the starting Trunk is made; suitcases the order
+     * ties keep the order they were given in.
+     *
+     * @param order The order the suitcases should be tried in, e.g. one of the SuitcaseOrders.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setOrder(Comparator<Suitcase> order)
+    {
+        this.order = order;
+        return this;
+    }
+
+    /**
+     * Is free area pruning on?
+     *
+     * @return True if Trunks without enough free area for the suitcases left are invalid.
+     */
+    public boolean isAreaPruning()
+    {
+        return this.areaPruning;
+    }
+
+    /**
+     * Turns free area pruning on or off.
+     *
+     * @param areaPruning True to make Trunks without enough free area for the suitcases left invalid.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setAreaPruning(boolean areaPruning)
+    {
+        this.areaPruning = areaPruning;
+        return this;
+    }
+
+    /**
+     * Is dead region pruning on?
+     *
+     * @return True if Trunks with too much empty space that no suitcase left fits in are invalid.
+     */
+    public boolean isRegionPruning()
+    {
+        return this.regionPruning;
+    }
+
+    /**
+     * Turns dead region pruning on or off.
+     *
+     * @param regionPruning True to make Trunks with too much empty space that no suitcase left fits in invalid.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setRegionPruning(boolean regionPruning)
+    {
+        this.regionPruning = regionPruning;
+        return this;
+    }
+
+    /**
+     * Is the free space index on?
+     *
+     * @return True if Trunks keep an index of their maximal empty rectangles.
+     */
+    public boolean isFreeSpaceIndex()
+    {
+        return this.freeSpaceIndex;
+    }
+
+    /**
+     * Turns the free space index on or off. With it on, where a suitcase fits is found from the empty rectangles
+     * instead of the cells, and Trunks where some suitcase left fits nowhere are invalid.
+     *
+     * @param freeSpaceIndex True to keep an index of the maximal empty rectangles.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setFreeSpaceIndex(boolean freeSpaceIndex)
+    {
+        this.freeSpaceIndex = freeSpaceIndex;
+        return this;
+    }
+
+    /**
+     * Getter for the objective.
+     *
+     * @return What packings are scored on, or null if every suitcase has to go in.
+     */
+    public BestPackingSolver.Objective getObjective()
+    {
+        return this.objective;
+    }
+
+    /**
+     * Sets what packings are scored on, for Backtracker.solveBest to find the best packing when not every suitcase
+     * has to go in. With an objective, each move of a Trunk decides on the next suitcase (putting it somewhere it fits
+     * or leaving it out), a Trunk is a goal once every suitcase is decided, and getBound() is the most a packing below
+     * it could score. Only NEXT_SUITCASE branching works this way, and the pruning rules are for when every suitcase
+     * has to go in, so they aren't used.
+     *
+     * @param objective What packings should be scored on, or null for every suitcase to have to go in.
+     *
+     * @return These options.
+     */
+    public TrunkOptions setObjective(BestPackingSolver.Objective objective)
+    {
+        this.objective = objective;
+        return this;
+    }
+
+    /**
+     * Getter for the pruning counts.
+     *
+     * @return The counts of what the pruning rules have cut off.
+     */
+    public PruningStats getPruningStats()
+    {
+        return this.pruningStats;
+    }
+}
@@ -0,0 +1,131 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * A TrunkProblem is one problem instance: the size of a Trunk and the Suitcases that are to go in it. It knows how to
+ * read itself from a file in the format Tests uses.
+ *
+ * @author Kevin Becker
+ */
+public class TrunkProblem
+{
+    /**
+     * The length of the Trunk.
+     */
+    private int length;
+
+    /**
+     * The width of the Trunk.
+     */
+    private int width;
+
+    /**
+     * The Suitcases to put into the Trunk, in the order they were given.
+     */
+    private List<Suitcase> cases;
+
+    /**
+     * Makes a new TrunkProblem.
+     *
+     * @param length The length of the Trunk.
+     * @param width The width of the Trunk.
+     * @param cases The Suitcases to put into the Trunk.
+     */
+    public TrunkProblem(int length, int width, List<Suitcase> cases)
+    {
+        this.length = length;
+        this.width = width;
+        this.cases = new ArrayList<>(cases);
+    }
+
+    /**
+     * Reads a problem from a file. The first line in the file contains the length, then a space, then the width, of
+     * the trunk. Each successive line contains the name (one character), length, and width of a suitcase.
+     *
+     * @param fileName The name of the file containing the problem instance description.
+     *
+     * @return The problem in the file.
+     *
+     * @throws FileNotFoundException if the file cannot be opened for reading
+     */
+    public static TrunkProblem read(String fileName) throws FileNotFoundException
+    {
+        int trunkL;
+        int trunkW;
+        List<Suitcase> cases = new ArrayList<>();
+        try (Scanner file = new Scanner(new File(fileName)))
+        {
+            String[] dims = file.nextLine().split("\\s+");
+            trunkL = Integer.parseInt(dims[0]);
+            trunkW = Integer.parseInt(dims[1]);
+            while (file.hasNextLine())
+            {
+                String[] scParams = file.nextLine().split("\\s+");
+                cases.add(new Suitcase(
+                        scParams[0].charAt(0),
+                        Integer.parseInt(scParams[1]),
+                        Integer.parseInt(scParams[2])
+                    )
+                );
+            }
+        }
+        return new TrunkProblem(trunkL, trunkW, cases);
+    }
+
+    /**
+     * Getter for the length of the Trunk.
+     *
+     * @return The length of the Trunk.
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Getter for the width of the Trunk.
+     *
+     * @return The width of the Trunk.
+     */
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    /**
+     * Getter for the Suitcases.
+     *
+     * @return A copy of the list of Suitcases, in the order they were given.
+     */
+    public List<Suitcase> getCases()
+    {
+        return new ArrayList<>(this.cases);
+    }
+
+    /**
+     * Makes the starting (empty) Trunk for this problem.
+     *
+     * @param gridType How the state of the Trunk should be stored.
+     *
+     * @return A new empty Trunk with all of the Suitcases left to add.
+     */
+    public Trunk toTrunk(Trunk.GridType gridType)
+    {
+        return new Trunk(length, width, getCases(), gridType);
+    }
+
+    /**
+     * Makes the starting (empty) Trunk for this problem.
+     *
+     * @param options How the Trunk should be stored and searched.
+     *
+     * @return A new empty Trunk with all of the Suitcases left to add.
+     */
+    public Trunk toTrunk(TrunkOptions options)
+    {
+        return new Trunk(length, width, getCases(), options);
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.Optional;
+
+/**
+ * The way into solving a TrunkProblem. It picks the best engine for the problem: suitcases which exactly fill the
+ * Trunk go to the ExactCoverSolver, and everything else goes to the Backtracker. If a GreedyPacker is set, it gets a
+ * quick try at the problem first.
+ *
+ * Before any of that (and before the cache, if there is one), a FeasibilityCheck looks for a quick reason the problem
+ * has no solution, and if it finds one the problem isn't searched at all. It is on unless it is set to null.
+ *
+ * @author Kevin Becker
+ */
+public class TrunkSolver
+{
+    /**
+     * The Backtracker used for problems that aren't exact covers.
+     */
+    private final Backtracker backtracker;
+
+    /**
+     * How the Trunks are stored and searched.
+     */
+    private final TrunkOptions options;
+
+    /**
+     * Should the Backtracker search one Trunk in place?
+     */
+    private boolean inPlace = false;
+
+    /**
+     * Should exact cover problems go to the ExactCoverSolver?
+     */
+    private boolean exactCover = true;
+
+    /**
+     * The IterativeBacktracker to use instead of the Backtracker, or null to use the Backtracker.
+     */
+    private IterativeBacktracker iterative = null;
+
+    /**
+     * Where answers are remembered (null if they aren't).
+     */
+    private SolutionCache cache = null;
+
+    /**
+     * What tries packing a problem before it is searched (null if nothing does).
+     */
+    private GreedyPacker greedy = null;
+
+    /**
+     * The PortfolioSolver to race orders with instead of the Backtracker, or null to use the Backtracker.
+     */
+    private PortfolioSolver portfolio = null;
+
+    /**
+     * What checks each problem for a quick reason it has no solution (null if nothing does).
+     */
+    private FeasibilityCheck feasibility = new FeasibilityCheck();
+
+    /**
+     * Why the last problem was rejected without searching (null if it wasn't).
+     */
+    private FeasibilityCheck.Reason rejection = null;
+
+    /**
+     * Makes a new TrunkSolver.
+     *
+     * @param backtracker The Backtracker to use for problems that aren't exact covers.
+     * @param options How the Trunks are stored and searched.
+     */
+    public TrunkSolver(Backtracker backtracker, TrunkOptions options)
+    {
+        this.backtracker = backtracker;
+        this.options = options;
+    }
+
+    /**
+     * Sets whether the Backtracker searches one Trunk in place.
+     *
+     * @param inPlace True to search in place; false to copy a Trunk for every successor.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setInPlace(boolean inPlace)
+    {
+        this.inPlace = inPlace;
+        return this;
+    }
+
+    /**
+     * Sets whether exact cover problems go to the ExactCoverSolver.
+     *
+     * @param exactCover True to send them there; false to always use the Backtracker.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setExactCover(boolean exactCover)
+    {
+        this.exactCover = exactCover;
+        return this;
+    }
+
+    /**
+     * Sets an IterativeBacktracker to search with instead of the Backtracker, e.g. for searches too deep to recurse
+     * or which should be checkpointed.
+     *
+     * @param iterative The IterativeBacktracker to use, or null to use the Backtracker.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setIterative(IterativeBacktracker iterative)
+    {
+        this.iterative = iterative;
+        return this;
+    }
+
+    /**
+     * Sets a cache to look problems up in before solving them, and to remember the answers in.
+     *
+     * @param cache The cache to use, or null to always solve.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setCache(SolutionCache cache)
+    {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets a GreedyPacker to try each problem with before it is searched. Only when it can't pack a problem is the
+     * problem searched.
+     *
+     * @param greedy The GreedyPacker to use (it keeps count of how often it packs a problem, and is told how long
+     *               the problems it doesn't pack take to search), or null to always search.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setGreedy(GreedyPacker greedy)
+    {
+        this.greedy = greedy;
+        return this;
+    }
+
+    /**
+     * Sets a PortfolioSolver to search with instead of the Backtracker, racing several orders of the suitcases.
+     *
+     * @param portfolio The PortfolioSolver to use, or null to use the Backtracker.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setPortfolio(PortfolioSolver portfolio)
+    {
+        this.portfolio = portfolio;
+        return this;
+    }
+
+    /**
+     * Sets the FeasibilityCheck to check each problem with before it is solved. By default each TrunkSolver has its
+     * own; setting a shared one counts the rejections of every solver together.
+     *
+     * @param feasibility The FeasibilityCheck to use, or null to solve every problem without checking it.
+     *
+     * @return This TrunkSolver.
+     */
+    public TrunkSolver setFeasibilityCheck(FeasibilityCheck feasibility)
+    {
+        this.feasibility = feasibility;
+        return this;
+    }
+
+    /**
+     * Getter for the FeasibilityCheck.
+     *
+     * @return The FeasibilityCheck each problem is checked with, or null if they aren't.
+     */
+    public FeasibilityCheck getFeasibilityCheck()
+    {
+        return this.feasibility;
+    }
+
+    /**
+     * Getter for why the last problem was rejected.
+     *
+     * @return Why the FeasibilityCheck showed the last problem solved has no solution, or null if it didn't.
+     */
+    public FeasibilityCheck.Reason getRejection()
+    {
+        return this.rejection;
+    }
+
+    /**
+     * Getter for the options.
+     *
+     * @return How the Trunks are stored and searched.
+     */
+    public TrunkOptions getOptions()
+    {
+        return this.options;
+    }
+
+    /**
+     * Solves a problem.
+     *
+     * @param problem The problem to solve.
+     *
+     * @return The solved Trunk, or empty if there is no solution.
+     */
+    public Optional<Configuration> solve(TrunkProblem problem)
+    {
+        // checked before the cache, so a rejected problem always says why, and doesn't take up room in the cache
+        rejection = (feasibility == null) ? null : feasibility.check(problem).orElse(null);
+        if(rejection != null)
+            return Optional.empty();
+
+        if(cache == null)
+            return solveUncached(problem);
+
+        Optional<Optional<Configuration>> cached = cache.get(problem, options);
+        if(cached.isPresent())
+            return cached.get();
+
+        Optional<Configuration> solution = solveUncached(problem);
+        cache.put(problem, solution);
+        return solution;
+    }
+
+    /**
+     * Solves a problem the FeasibilityCheck didn't reject: by the GreedyPacker if there is one and it can, and
+     * otherwise by searching.
+     *
+     * @param problem The problem to solve.
+     *
+     * @return The solved Trunk, or empty if there is no solution.
+     */
+    private Optional<Configuration> solveUncached(TrunkProblem problem)
+    {
+        if(greedy == null)
+            return search(problem);
+
+        // a problem the GreedyPacker can't pack is timed from before the try, so its time is what it cost altogether
+        long begin = System.nanoTime();
+        Optional<Configuration> packed = greedy.pack(problem, options);
+        if(packed.isPresent())
+            return packed;
+        Optional<Configuration> solution = search(problem);
+        greedy.searched(System.nanoTime() - begin);
+        return solution;
+    }
+
+    /**
+     * Searches for a solution to a problem with the best engine for it.
+     *
+     * @param problem The problem to solve.
+     *
+     * @return The solved Trunk, or empty if there is no solution.
+     */
+    private Optional<Configuration> search(TrunkProblem problem)
+    {
+        if(exactCover && ExactCoverSolver.isPerfectFit(problem.getLength(), problem.getWidth(), problem.getCases()))
+        {
+            return new ExactCoverSolver(problem.getLength(), problem.getWidth(), problem.getCases())
+                    .setSearchListener(backtracker.getSearchListener()).solve(options);
+        }
+
+        if(portfolio != null)
+            return portfolio.solve(problem, backtracker);
+
+        Trunk starting = problem.toTrunk(options);
+        if(iterative != null)
+            return inPlace ? iterative.solveInPlace(starting) : iterative.solve(starting);
+        return inPlace ? backtracker.solveInPlace(starting) : backtracker.solve(starting);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * The random keys used to hash the state of a Trunk, Zobrist style. Every cell of the Trunk has its own random key,
+ * and the key of an occupancy is all of the keys of the taken cells XORed together, so it can be kept up to date one
+ * placement at a time. To make a placement cost one XOR per row instead of one per cell, the keys are stored as
+ * running XORs along each row.
+ *
+ * Remaining suitcases are keyed by their dimensions (not their names, and not which way they are turned) and added
+ * together instead of XORed, so two identical suitcases don't cancel each other out.
+ *
+ * @author Kevin Becker
+ */
+public class ZobristKeys
+{
+    /**
+     * rowPrefix[row][col] is the XOR of the keys of cells 0 through col - 1 of row.
+     */
+    private final long[][] rowPrefix;
+
+    /**
+     * Makes the keys for a Trunk of the given size. The keys only depend on the size, so two Trunks of the same size
+     * always get the same keys.
+     *
+     * @param length The length (columns) of the Trunk.
+     * @param width The width (rows) of the Trunk.
+     */
+    ZobristKeys(int length, int width)
+    {
+        this.rowPrefix = new long[width][length + 1];
+        for(int row = 0; row < width; ++row)
+        {
+            for(int col = 0; col < length; ++col)
+            {
+                rowPrefix[row][col + 1] = rowPrefix[row][col] ^ mix((long) row * length + col + 1);
+            }
+        }
+    }
+
+    /**
+     * Gets the key of the cells a suitcase covers.
+     *
+     * @param startRow The row of the top left corner of the suitcase.
+     * @param startCol The column of the top left corner of the suitcase.
+     * @param which The suitcase.
+     *
+     * @return The XOR of the keys of every cell the suitcase covers.
+     */
+    public long cells(int startRow, int startCol, Suitcase which)
+    {
+        long key = 0;
+        for(int row = startRow; row < startRow + which.getWidth(); ++row)
+        {
+            key ^= rowPrefix[row][startCol + which.getLength()] ^ rowPrefix[row][startCol];
+        }
+        return key;
+    }
+
+    /**
+     * Gets the key of a suitcase, which is the same for any suitcase of the same size either way around.
+     *
+     * @param which The suitcase.
+     *
+     * @return The suitcase's key.
+     */
+    public static long suitcase(Suitcase which)
+    {
+        long shorter = Math.min(which.getLength(), which.getWidth());
+        long longer = Math.max(which.getLength(), which.getWidth());
+        return mix((shorter << 32) | longer | Long.MIN_VALUE);
+    }
+
+    /**
+     * Gets the key of the first cell which hasn't been decided yet, for searches which go through the cells in order.
+     *
+     * @param cell The index (row * length + col) of the cell.
+     *
+     * @return The cell's key.
+     */
+    public static long anchor(int cell)
+    {
+        return mix(~(long) cell);
+    }
+
+    /**
+     * Scrambles a number into a random looking key (the SplitMix64 finalizer).
+     *
+     * @param z The number to scramble.
+     *
+     * @return The scrambled number.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}